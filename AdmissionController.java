@@ -0,0 +1,148 @@
+package travelbooking;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Admission control in front of the booking operations. A request is
+// checked, in order, against the bus's free-seat counter (no locking),
+// a per-client token bucket, a per-bus token bucket and a bounded per-bus
+// queue of in-flight requests. Anything that fails a check is shed
+// immediately instead of piling up on the Bus monitor.
+class AdmissionController {
+    enum Decision {
+        ADMITTED, SOLD_OUT, CLIENT_RATE_LIMITED, BUS_RATE_LIMITED, QUEUE_FULL
+    }
+
+    // Classic token bucket: capacity tokens, refilled continuously at ratePerSecond.
+    static class TokenBucket {
+        private final double capacity;
+        private final double ratePerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double ratePerSecond) {
+            this.capacity = capacity;
+            this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+
+        // True once the bucket has refilled completely, when it behaves exactly like a new one.
+        synchronized boolean isFull(long now) {
+            return tokens + (now - lastRefill) * ratePerNano >= capacity;
+        }
+    }
+
+    private final double clientBurst;
+    private final double clientRate;
+    private final double busBurst;
+    private final double busRate;
+    private final int maxQueuePerBus;
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> busBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Semaphore> busQueues = new ConcurrentHashMap<>();
+    private final EnumMap<Decision, AtomicLong> counts = new EnumMap<>(Decision.class);
+    // Client buckets that have refilled are dropped so the map only holds recently active clients
+    private final long clientIdleNanos;
+    private final AtomicLong lastClientSweep = new AtomicLong(System.nanoTime());
+
+    public AdmissionController(double clientBurst, double clientRate, double busBurst, double busRate, int maxQueuePerBus) {
+        if (clientBurst < 1 || clientRate <= 0 || busBurst < 1 || busRate <= 0 || maxQueuePerBus <= 0) {
+            throw new IllegalArgumentException("Rate limits and queue size must be positive");
+        }
+        this.clientBurst = clientBurst;
+        this.clientRate = clientRate;
+        this.busBurst = busBurst;
+        this.busRate = busRate;
+        this.maxQueuePerBus = maxQueuePerBus;
+        this.clientIdleNanos = (long) Math.ceil(clientBurst / clientRate * 1_000_000_000.0);
+        for (Decision d : Decision.values()) {
+            counts.put(d, new AtomicLong());
+        }
+    }
+
+    // Decides whether a booking request may proceed. Every ADMITTED
+    // decision must be paired with a call to release(bus).
+    public Decision admit(String clientId, Bus bus) {
+        if (clientId == null || bus == null) {
+            throw new IllegalArgumentException("Client and bus cannot be null");
+        }
+        Decision decision;
+        if (bus.getAvailableSeatCount() == 0) {
+            decision = Decision.SOLD_OUT;
+        } else if (!clientBuckets.computeIfAbsent(clientId, k -> new TokenBucket(clientBurst, clientRate)).tryAcquire()) {
+            decision = Decision.CLIENT_RATE_LIMITED;
+        } else if (!busBuckets.computeIfAbsent(bus.getBusNumber(), k -> new TokenBucket(busBurst, busRate)).tryAcquire()) {
+            decision = Decision.BUS_RATE_LIMITED;
+        } else if (!queue(bus).tryAcquire()) {
+            decision = Decision.QUEUE_FULL;
+        } else {
+            decision = Decision.ADMITTED;
+        }
+        counts.get(decision).incrementAndGet();
+        sweepIdleClients();
+        return decision;
+    }
+
+    // At most once per refill period, one caller removes the client buckets
+    // that are full again. A client racing with the sweep can at worst spend
+    // a token from the removed bucket before getting a fresh one.
+    private void sweepIdleClients() {
+        long now = System.nanoTime();
+        long last = lastClientSweep.get();
+        if (now - last < clientIdleNanos || !lastClientSweep.compareAndSet(last, now)) return;
+        for (Map.Entry<String, TokenBucket> e : clientBuckets.entrySet()) {
+            if (e.getValue().isFull(now)) {
+                clientBuckets.remove(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    public int getTrackedClientCount() {
+        return clientBuckets.size();
+    }
+
+    public void release(Bus bus) {
+        queue(bus).release();
+    }
+
+    public long getCount(Decision decision) {
+        return counts.get(decision).get();
+    }
+
+    public long getShedCount() {
+        return getCount(Decision.CLIENT_RATE_LIMITED) + getCount(Decision.BUS_RATE_LIMITED) + getCount(Decision.QUEUE_FULL);
+    }
+
+    public int getQueueDepth(Bus bus) {
+        Semaphore q = busQueues.get(bus.getBusNumber());
+        return q == null ? 0 : maxQueuePerBus - q.availablePermits();
+    }
+
+    public void printMetrics(List<Bus> buses) {
+        System.out.println("Admitted: " + getCount(Decision.ADMITTED));
+        System.out.println("Sold out (fast fail): " + getCount(Decision.SOLD_OUT));
+        System.out.println("Shed - client rate limit: " + getCount(Decision.CLIENT_RATE_LIMITED));
+        System.out.println("Shed - bus rate limit: " + getCount(Decision.BUS_RATE_LIMITED));
+        System.out.println("Shed - queue full: " + getCount(Decision.QUEUE_FULL));
+        System.out.println("Shed - total: " + getShedCount());
+        System.out.println("Clients tracked for rate limiting: " + getTrackedClientCount());
+        for (Bus b : buses) {
+            System.out.println("Bus " + b.getBusNumber() + " queue depth: " + getQueueDepth(b) + "/" + maxQueuePerBus);
+        }
+    }
+
+    private Semaphore queue(Bus bus) {
+        return busQueues.computeIfAbsent(bus.getBusNumber(), k -> new Semaphore(maxQueuePerBus));
+    }
+}
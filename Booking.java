@@ -0,0 +1,24 @@
+package travelbooking;
+
+class Booking {
+    private Passenger passenger;
+    private int seatNumber;
+
+    public Booking(Passenger passenger, int seatNumber) throws IllegalArgumentException {
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger cannot be null");
+        }
+        if (seatNumber <= 0) {
+            throw new IllegalArgumentException("Invalid seat number");
+        }
+        this.passenger = passenger;
+        this.seatNumber = seatNumber;
+    }
+
+    public Passenger getPassenger() { return passenger; }
+    public int getSeatNumber() { return seatNumber; }
+
+    public String toString() {
+        return "Seat " + seatNumber + " booked by " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ")";
+    }
+}
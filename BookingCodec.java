@@ -0,0 +1,156 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Compact binary encoding for bookings.dat. After a 4-byte header, each bus
+// with bookings is one record: the bus number (varint length and UTF-8
+// bytes), varint booking count, then for every booking in seat order the
+// varint seat delta and varint passenger number. A passenger whose ID has
+// no number of its own (not "P<digits>", or sharing its number with an
+// earlier passenger) is written as 0 followed by the ID as a string. A
+// typical booking takes 2-3 bytes instead of an 11-byte text line.
+class BookingCodec {
+    private static final byte[] HEADER = { 'B', 'K', 'N', '1' };
+
+    interface BookingSink {
+        // passengerId is null unless passengerNumber is 0
+        void accept(String busNumber, int seat, int passengerNumber, String passengerId) throws IOException;
+    }
+
+    interface RecordSink {
+        void accept(String busNumber, int count, int offset, int length);
+    }
+
+    // Written once at the start of the file.
+    static byte[] header() {
+        return HEADER.clone();
+    }
+
+    // Finds the record boundaries in an encoded file without decoding the
+    // bookings themselves.
+    static void scan(byte[] data, RecordSink sink) throws IOException {
+        if (data.length == 0) return;
+        if (data.length < HEADER.length || !Arrays.equals(Arrays.copyOf(data, HEADER.length), HEADER)) {
+            throw new IOException("Not a bookings file (unknown header)");
+        }
+        int[] pos = { HEADER.length };
+        while (pos[0] < data.length) {
+            int start = pos[0];
+            String busNumber = readString(data, pos);
+            int count = readVarint(data, pos);
+            for (int i = 0; i < count; i++) {
+                readVarint(data, pos);
+                if (readVarint(data, pos) == 0) readString(data, pos);
+            }
+            sink.accept(busNumber, count, start, pos[0] - start);
+        }
+    }
+
+    // Encodes one bus from its passenger number per seat (0 when free);
+    // passengerIds, if not null, holds the ID for seats whose passenger is
+    // written by ID instead. Returns an empty array if the bus has no bookings.
+    static byte[] encodeBus(String busNumber, int[] seatHolders, String[] passengerIds) {
+        int count = 0;
+        for (int seat = 1; seat < seatHolders.length; seat++) {
+            if (seatHolders[seat] != 0 || passengerIds != null && passengerIds[seat] != null) count++;
+        }
+        if (count == 0) return new byte[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + count * 4);
+        byte[] name = busNumber.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, name.length);
+        out.write(name, 0, name.length);
+        writeVarint(out, count);
+        int prev = 0;
+        for (int seat = 1; seat < seatHolders.length; seat++) {
+            if (passengerIds != null && passengerIds[seat] != null) {
+                writeVarint(out, seat - prev);
+                writeVarint(out, 0);
+                byte[] id = passengerIds[seat].getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, id.length);
+                out.write(id, 0, id.length);
+                prev = seat;
+            } else if (seatHolders[seat] != 0) {
+                writeVarint(out, seat - prev);
+                writeVarint(out, seatHolders[seat]);
+                prev = seat;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // Decodes records as returned by scan or encodeBus, without the file header.
+    static void decode(InputStream in, BookingSink sink) throws IOException {
+        while (true) {
+            int nameLength = readVarint(in, true);
+            if (nameLength < 0) return;
+            String busNumber = readString(in, nameLength);
+            int count = readVarint(in, false);
+            int seat = 0;
+            for (int i = 0; i < count; i++) {
+                seat += readVarint(in, false);
+                int passengerNumber = readVarint(in, false);
+                String passengerId = passengerNumber == 0 ? readString(in, readVarint(in, false)) : null;
+                sink.accept(busNumber, seat, passengerNumber, passengerId);
+            }
+        }
+    }
+
+    static void writeVarint(OutputStream out, int value) {
+        try {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readString(InputStream in, int length) throws IOException {
+        if (length < 0) throw new IOException("Malformed booking data");
+        byte[] bytes = new byte[length];
+        if (in.read(bytes) != length) throw new EOFException("Truncated booking data");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(byte[] data, int[] pos) throws IOException {
+        int length = readVarint(data, pos);
+        if (length < 0 || length > data.length - pos[0]) {
+            throw new EOFException("Truncated booking data");
+        }
+        String s = new String(data, pos[0], length, StandardCharsets.UTF_8);
+        pos[0] += length;
+        return s;
+    }
+
+    private static int readVarint(byte[] data, int[] pos) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] >= data.length) {
+                throw new EOFException("Truncated booking data");
+            }
+            int b = data[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in booking data");
+    }
+
+    // Returns -1 on a clean end of stream if allowed, otherwise fails on truncated data.
+    static int readVarint(InputStream in, boolean eofAllowed) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0 && eofAllowed) return -1;
+                throw new EOFException("Truncated booking data");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in booking data");
+    }
+}
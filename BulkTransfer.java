@@ -0,0 +1,402 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import travelbooking.Validator.ValidationError;
+
+// Bulk import and export of passengers and buses as CSV or JSON Lines
+// (chosen by file extension). Imports read the file in batches, parse and
+// validate each batch in parallel with the same field rules as
+// registration, then hand valid rows to a Committer on the calling thread
+// for de-duplication and insertion. The data files are persisted once at
+// the end of the import. A CSV file with a header row is matched to the
+// fields by column name, like JSON; other columns (such as the exported
+// passengerId) are ignored. Without a header the columns are positional.
+class BulkTransfer {
+    static final String[] PASSENGER_FIELDS = { "name", "phone", "email", "city", "age" };
+    static final String[] BUS_FIELDS = { "busNumber", "seats", "startingPoint", "endingPoint", "startingTime", "fare" };
+    private static final int BATCH_SIZE = 10000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    // Validated passenger row; the passenger ID is assigned on commit.
+    static class PassengerRow {
+        final String name;
+        final String phone;
+        final String email;
+        final String city;
+        final int age;
+
+        PassengerRow(String name, String phone, String email, String city, int age) {
+            this.name = name;
+            this.phone = phone;
+            this.email = email;
+            this.city = city;
+            this.age = age;
+        }
+    }
+
+    interface Committer<T> {
+        // Adds the record unless it duplicates existing data; returns false for a duplicate.
+        boolean add(T record);
+        void persist() throws IOException;
+    }
+
+    static class Result {
+        int read;
+        int imported;
+        int duplicates;
+        int invalid;
+        long nanos;
+        final List<String> errors = new ArrayList<>();
+
+        void print(String what) {
+            double seconds = nanos / 1_000_000_000.0;
+            System.out.println("Read " + read + " " + what + ": " + imported + " imported, " + duplicates
+                    + " duplicates skipped, " + invalid + " invalid.");
+            for (String e : errors) {
+                System.out.println("  " + e);
+            }
+            if (invalid > errors.size()) {
+                System.out.println("  ... and " + (invalid - errors.size()) + " more invalid rows.");
+            }
+            System.out.printf("Throughput: %.0f records/sec (%.3f s)%n", seconds > 0 ? read / seconds : 0.0, seconds);
+        }
+    }
+
+    static Result importPassengers(File file, Committer<PassengerRow> committer) throws IOException {
+        return importFile(file, PASSENGER_FIELDS, BulkTransfer::toPassengerRow, committer);
+    }
+
+    static Result importBuses(File file, Committer<Bus> committer) throws IOException {
+        return importFile(file, BUS_FIELDS, BulkTransfer::toBus, committer);
+    }
+
+    // Each converter returns the record, or the first ValidationError.
+    private static Object toPassengerRow(String[] f) {
+        int age = Validator.parseInt(f[4]);
+        ValidationError error = Validator.checkName(f[0]);
+        if (error == null) error = Validator.checkPhone(f[1]);
+        if (error == null) error = Validator.checkEmail(f[2]);
+        if (error == null) error = Validator.checkCity(f[3]);
+        if (error == null) error = Validator.checkAge(age);
+        return error != null ? error : new PassengerRow(f[0], f[1], f[2], f[3], age);
+    }
+
+    private static Object toBus(String[] f) {
+        int seats = Validator.parseInt(f[1]);
+        double fare = Validator.parseDecimal(f[5]);
+        ValidationError error = Validator.checkBusNumber(f[0]);
+        if (error == null) error = Validator.checkSeats(seats);
+        if (error == null) error = Validator.checkStartingPoint(f[2]);
+        if (error == null) error = Validator.checkEndingPoint(f[3], f[2]);
+        if (error == null) error = Validator.checkTime(f[4]);
+        if (error == null) error = Validator.checkFare(fare);
+        return error != null ? error : new Bus(f[0], seats, f[2], f[3], f[4], fare);
+    }
+
+    private static <T> Result importFile(File file, String[] fields, Function<String[], Object> validator, Committer<T> committer) throws IOException {
+        boolean json = isJsonLines(file);
+        Result result = new Result();
+        long start = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            int[] columns = null; // header position of each field, null when positional
+            int firstLine = 1;
+            int lineNumber = 0;
+            String line;
+            boolean first = true;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (first && !json && isHeader(line, fields)) {
+                    columns = headerColumns(line, fields);
+                    first = false;
+                    firstLine = lineNumber + 1;
+                    continue;
+                }
+                first = false;
+                batch.add(line);
+                if (batch.size() == BATCH_SIZE) {
+                    processBatch(batch, firstLine, json, fields, columns, validator, committer, result);
+                    batch.clear();
+                    firstLine = lineNumber + 1;
+                }
+            }
+            processBatch(batch, firstLine, json, fields, columns, validator, committer, result);
+        }
+        committer.persist();
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static <T> void processBatch(List<String> lines, int firstLine, boolean json, String[] fields, int[] columns,
+                                         Function<String[], Object> validator, Committer<T> committer, Result result) {
+        int n = lines.size();
+        Object[] parsed = new Object[n]; // record, or error message
+        IntStream.range(0, n).parallel().forEach(i -> {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) return;
+            try {
+                String[] values = json ? fromJson(line, fields)
+                        : columns == null ? fromCsv(line, fields.length) : fromCsv(line, fields, columns);
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = values[k].trim();
+                }
+                Object record = validator.apply(values);
+                parsed[i] = record instanceof ValidationError
+                        ? "line " + (firstLine + i) + ": " + ((ValidationError) record).getMessage() : record;
+            } catch (IllegalArgumentException e) {
+                // Malformed CSV or JSON
+                parsed[i] = "line " + (firstLine + i) + ": " + e.getMessage();
+            }
+        });
+        for (Object o : parsed) {
+            if (o == null) continue;
+            result.read++;
+            if (o instanceof String) {
+                result.invalid++;
+                if (result.errors.size() < MAX_REPORTED_ERRORS) result.errors.add((String) o);
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            T record = (T) o;
+            if (committer.add(record)) result.imported++;
+            else result.duplicates++;
+        }
+    }
+
+    // Exports return the number of records written. Records that the import
+    // would reject (older data predating the field rules) are left out, so
+    // every exported file can be imported again.
+    static int exportPassengers(File file, List<Passenger> passengers) throws IOException {
+        boolean json = isJsonLines(file);
+        String[] header = { "passengerId", "name", "phone", "email", "city", "age" };
+        int written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!json) writeRow(out, header, false, null);
+            for (Passenger p : passengers) {
+                String[] values = { p.getPassengerId(), p.getName(), p.getPhone(), p.getEmail(), p.getCity(), String.valueOf(p.getAge()) };
+                if (toPassengerRow(Arrays.copyOfRange(values, 1, values.length)) instanceof ValidationError) continue;
+                writeRow(out, values, json, header);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    static int exportBuses(File file, List<Bus> buses) throws IOException {
+        boolean json = isJsonLines(file);
+        int written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!json) writeRow(out, BUS_FIELDS, false, null);
+            for (Bus b : buses) {
+                String[] values = { b.getBusNumber(), String.valueOf(b.getTotalSeats()), b.getStartingPoint(),
+                        b.getEndingPoint(), b.getStartingTime(), String.valueOf(b.getFare()) };
+                if (toBus(values) instanceof ValidationError) continue;
+                writeRow(out, values, json, BUS_FIELDS);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static boolean isJsonLines(File file) {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) return true;
+        if (name.endsWith(".csv")) return false;
+        throw new IllegalArgumentException("Unsupported file type. Use .csv or .jsonl");
+    }
+
+    private static boolean isHeader(String line, String[] fields) {
+        String[] values = fromCsv(line, -1);
+        for (String v : values) {
+            for (String f : fields) {
+                if (v.trim().equalsIgnoreCase(f)) return true;
+            }
+        }
+        return false;
+    }
+
+    // Finds each field's column in a CSV header; every field must be present.
+    private static int[] headerColumns(String line, String[] fields) {
+        String[] names = fromCsv(line, -1);
+        int[] columns = new int[fields.length + 1];
+        columns[fields.length] = names.length; // expected width of each row
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = -1;
+            for (int k = 0; k < names.length; k++) {
+                if (names[k].trim().equalsIgnoreCase(fields[i])) {
+                    columns[i] = k;
+                    break;
+                }
+            }
+            if (columns[i] < 0) throw new IllegalArgumentException("CSV header is missing column \"" + fields[i] + "\".");
+        }
+        return columns;
+    }
+
+    private static void writeRow(Writer out, String[] values, boolean json, String[] names) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (json) {
+            sb.append('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                appendJsonString(sb, names[i]);
+                sb.append(':');
+                appendJsonString(sb, values[i]);
+            }
+            sb.append('}');
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) sb.append(',');
+                String v = values[i];
+                if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0) {
+                    sb.append('"').append(v.replace("\"", "\"\"")).append('"');
+                } else {
+                    sb.append(v);
+                }
+            }
+        }
+        out.write(sb.toString());
+        out.write(System.lineSeparator());
+    }
+
+    // Splits one CSV line; double-quoted fields may contain commas and "" escapes.
+    // With expected >= 0 the field count must match.
+    static String[] fromCsv(String line, int expected) {
+        List<String> values = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    sb.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        values.add(sb.toString());
+        if (expected >= 0 && values.size() != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " fields but found " + values.size() + ".");
+        }
+        return values.toArray(new String[0]);
+    }
+
+    // Splits one CSV line and picks the fields from the columns found by headerColumns.
+    static String[] fromCsv(String line, String[] fields, int[] columns) {
+        String[] row = fromCsv(line, columns[fields.length]);
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = row[columns[i]];
+        }
+        return values;
+    }
+
+    // Reads the named fields from a flat JSON object; numbers, booleans and
+    // null are returned as their text. Unknown fields are ignored.
+    static String[] fromJson(String line, String[] fields) {
+        Map<String, String> object = new HashMap<>();
+        int[] pos = { 0 };
+        skipSpace(line, pos);
+        expect(line, pos, '{');
+        skipSpace(line, pos);
+        if (peek(line, pos) != '}') {
+            while (true) {
+                skipSpace(line, pos);
+                String key = readJsonString(line, pos);
+                skipSpace(line, pos);
+                expect(line, pos, ':');
+                skipSpace(line, pos);
+                object.put(key, peek(line, pos) == '"' ? readJsonString(line, pos) : readJsonLiteral(line, pos));
+                skipSpace(line, pos);
+                if (peek(line, pos) == ',') {
+                    pos[0]++;
+                    continue;
+                }
+                break;
+            }
+        }
+        expect(line, pos, '}');
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = object.get(fields[i]);
+            if (values[i] == null) throw new IllegalArgumentException("Missing field \"" + fields[i] + "\".");
+        }
+        return values;
+    }
+
+    private static String readJsonString(String s, int[] pos) {
+        expect(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < s.length()) {
+            char c = s.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= s.length()) break;
+            char e = s.charAt(pos[0]++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("Invalid JSON escape.");
+                    sb.append((char) Integer.parseInt(s.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                    break;
+                default: sb.append(e);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string.");
+    }
+
+    private static String readJsonLiteral(String s, int[] pos) {
+        int start = pos[0];
+        while (pos[0] < s.length() && ",} \t".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+        if (start == pos[0]) throw new IllegalArgumentException("Invalid JSON value.");
+        return s.substring(start, pos[0]);
+    }
+
+    private static void appendJsonString(StringBuilder sb, String v) {
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static char peek(String s, int[] pos) {
+        return pos[0] < s.length() ? s.charAt(pos[0]) : '\0';
+    }
+
+    private static void expect(String s, int[] pos, char c) {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("Invalid JSON: expected '" + c + "' at column " + (pos[0] + 1) + ".");
+        pos[0]++;
+    }
+
+    private static void skipSpace(String s, int[] pos) {
+        while (pos[0] < s.length() && Character.isWhitespace(s.charAt(pos[0]))) pos[0]++;
+    }
+}
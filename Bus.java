@@ -0,0 +1,393 @@
+package travelbooking;
+
+import java.util.*;
+import java.io.*;
+
+class Bus {
+    private String busNumber;
+    private String startingPoint;
+    private String endingPoint;
+    private int departure; // minutes after midnight, -1 if not known
+    private String unparsedStartingTime; // original text when it could not be read as a time
+    private int totalSeats;
+    private double fare;
+    // Cancelled: not bookable and not offered as an alternative
+    private volatile boolean outOfService;
+    // Seat map, seat holders and waiting list are built on first access so
+    // that startup does not pay for buses nobody touches
+    private volatile SeatMap seatMap;
+    private int[] seatHolders; // PassengerDirectory index per seat, 0 when free
+    private StaticQueue<Passenger> waitingList;
+    // Persisted state applied on first access: this bus's record in bookings.dat and its waiting list
+    private byte[] pendingBookings;
+    private int pendingOffset;
+    private int pendingLength;
+    private int pendingCount; // bookings in the pending record, for the free-seat count
+    private List<Passenger> pendingWaiting;
+
+    public Bus(String busNumber, int totalSeats, String startingPoint, String endingPoint, String startingTime, double fare) throws IllegalArgumentException {
+        if (busNumber == null || startingPoint == null || endingPoint == null || startingTime == null) {
+            throw new IllegalArgumentException("Input parameters cannot be null");
+        }
+        if (totalSeats <= 0 || fare <= 0) {
+            throw new IllegalArgumentException("Total seats and fare must be positive");
+        }
+        this.busNumber = busNumber;
+        this.totalSeats = totalSeats;
+        this.startingPoint = startingPoint;
+        this.endingPoint = endingPoint;
+        this.departure = Validator.parseDepartureTime(startingTime);
+        if (departure < 0) {
+            this.unparsedStartingTime = startingTime;
+        }
+        this.fare = fare;
+    }
+
+    // The seat map, holders and waiting list are filled in locally and
+    // seatMap is published last, so the lock-free getAvailableSeatCount
+    // never sees a map that is still being replayed.
+    private void ensureLoaded() {
+        if (seatMap != null) return;
+        int[] holders = new int[totalSeats + 1];
+        StaticQueue<Passenger> queue = new StaticQueue<>(100);
+        SeatMap map = new SeatMap(totalSeats);
+        if (pendingBookings != null) {
+            try {
+                BookingCodec.decode(new ByteArrayInputStream(pendingBookings, pendingOffset, pendingLength), (recordBus, seatNumber, passengerNumber, passengerId) -> {
+                    Passenger passenger = passengerId != null ? PassengerDirectory.get(passengerId) : PassengerDirectory.get(passengerNumber);
+                    if (passenger == null) {
+                        System.out.println("Passenger not found for booking: bus " + busNumber + ", seat " + seatNumber);
+                    } else if (!map.isFree(seatNumber)) {
+                        System.out.println("Booking conflict skipped: bus " + busNumber + ", seat " + seatNumber + " for "
+                                + passenger.getPassengerId() + " is invalid or already booked.");
+                    } else {
+                        map.take(seatNumber);
+                        PassengerDirectory.register(passenger);
+                        holders[seatNumber] = passenger.getIndex();
+                    }
+                });
+            } catch (IOException e) {
+                System.out.println("Invalid booking data for bus " + busNumber + ": " + e.getMessage());
+            }
+            pendingBookings = null;
+        }
+        if (pendingWaiting != null) {
+            for (Passenger p : pendingWaiting) {
+                if (!queue.contains(p) && !holdsSeat(holders, p)) {
+                    try {
+                        queue.enqueue(p);
+                    } catch (IllegalStateException e) {
+                        System.out.println("Error: " + e.getMessage());
+                    }
+                }
+            }
+            pendingWaiting = null;
+        }
+        seatHolders = holders;
+        waitingList = queue;
+        seatMap = map;
+    }
+
+    public synchronized boolean isLoaded() {
+        return seatMap != null;
+    }
+
+    // Records this bus's encoded bookings to be applied on first access.
+    public synchronized void deferBookings(byte[] data, int offset, int length, int count) {
+        if (seatMap != null) {
+            throw new IllegalStateException("Bus " + busNumber + " is already loaded");
+        }
+        pendingBookings = data;
+        pendingOffset = offset;
+        pendingLength = length;
+        pendingCount = count;
+    }
+
+    // Records a waiting passenger to be queued on first access.
+    public synchronized void deferWaiting(Passenger passenger) {
+        if (seatMap != null) {
+            addToWaitingList(passenger);
+            return;
+        }
+        if (pendingWaiting == null) {
+            pendingWaiting = new ArrayList<>();
+        }
+        pendingWaiting.add(passenger);
+    }
+
+    public String getBusNumber() { return busNumber; }
+    public String getStartingPoint() { return startingPoint; }
+    public String getEndingPoint() { return endingPoint; }
+    public String getStartingTime() { return departure >= 0 ? Validator.formatTime(departure) : unparsedStartingTime; }
+    public int getDepartureMinutes() { return departure; }
+    public boolean isOutOfService() { return outOfService; }
+
+    // Set before the seats are released, under the bus lock, so no booking
+    // can be made on the bus afterwards.
+    public synchronized void markOutOfService() {
+        outOfService = true;
+    }
+
+    private void checkInService() throws IllegalArgumentException {
+        if (outOfService) {
+            throw new IllegalArgumentException("Bus " + busNumber + " is out of service");
+        }
+    }
+    public double getFare() { return fare; }
+    public int getTotalSeats() { return totalSeats; }
+
+    // Booking views built from the compact seat array; index 0 is unused.
+    public synchronized Booking[] getBookedSeats() {
+        ensureLoaded();
+        Booking[] bookings = new Booking[totalSeats + 1];
+        for (int seat = 1; seat <= totalSeats; seat++) {
+            if (seatHolders[seat] != 0) {
+                bookings[seat] = new Booking(PassengerDirectory.atIndex(seatHolders[seat]), seat);
+            }
+        }
+        return bookings;
+    }
+
+    public synchronized Passenger getSeatHolder(int seatNumber) {
+        if (seatNumber < 1 || seatNumber > totalSeats) return null;
+        ensureLoaded();
+        return PassengerDirectory.atIndex(seatHolders[seatNumber]);
+    }
+
+    // Unloaded buses return their original record without being loaded.
+    public synchronized byte[] encodeBookings() {
+        if (seatMap == null) {
+            return pendingBookings == null ? new byte[0]
+                    : Arrays.copyOfRange(pendingBookings, pendingOffset, pendingOffset + pendingLength);
+        }
+        int[] numbers = new int[seatHolders.length];
+        String[] ids = null;
+        for (int seat = 1; seat < seatHolders.length; seat++) {
+            if (seatHolders[seat] == 0) continue;
+            Passenger holder = PassengerDirectory.atIndex(seatHolders[seat]);
+            if (PassengerDirectory.ownsNumber(holder)) {
+                numbers[seat] = holder.getNumber();
+            } else {
+                if (ids == null) ids = new String[seatHolders.length];
+                ids[seat] = holder.getPassengerId();
+            }
+        }
+        return BookingCodec.encodeBus(busNumber, numbers, ids);
+    }
+
+    public synchronized StaticQueue<Passenger> getWaitingList() {
+        ensureLoaded();
+        return waitingList;
+    }
+
+    // Snapshot of the waiting list in queue order; does not load the bus.
+    public synchronized List<Passenger> getWaitingPassengers() {
+        if (seatMap == null) {
+            return pendingWaiting == null ? new ArrayList<>() : new ArrayList<>(pendingWaiting);
+        }
+        List<Passenger> result = new ArrayList<>(waitingList.size());
+        Iterator<Passenger> iterator = waitingList.iterator();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    // An unloaded bus answers from its record's booking count without
+    // decoding it; conflicting entries are only dropped once it is loaded.
+    public int getAvailableSeatCount() {
+        SeatMap map = seatMap;
+        if (map == null) {
+            synchronized (this) {
+                if (seatMap == null) return Math.max(0, totalSeats - pendingCount);
+                map = seatMap;
+            }
+        }
+        return map.freeCount();
+    }
+
+    public void showBusDetails() {
+        System.out.println("Bus Number: " + busNumber + " | Route: " + startingPoint + " to " + endingPoint +
+                " | Time: " + getStartingTime() + " | Total Seats: " + totalSeats + " | Fare: RS." + fare +
+                (outOfService ? " | OUT OF SERVICE" : ""));
+        int available = getAvailableSeatCount();
+        System.out.println("Seats Available: " + available + " | Booked: " + (totalSeats - available));
+    }
+
+    public String toFileString() {
+        return busNumber + ";" + totalSeats + ";" + startingPoint + ";" + endingPoint + ";" + getStartingTime() + ";" + fare
+                + (outOfService ? ";cancelled" : "");
+    }
+
+    public synchronized boolean isSeatAvailable(int seatNumber) {
+        ensureLoaded();
+        return seatMap.isFree(seatNumber);
+    }
+
+    // Books the requested seat. If it is taken, the best available seat is
+    // assigned instead; the passenger only goes to the waiting list when the
+    // bus is full. Returns the seat booked, or -1 if waitlisted. Meant for
+    // interactive booking; stored bookings are replayed with bookExactSeat.
+    public synchronized int bookSeat(Passenger passenger, int seatNumber) throws IllegalArgumentException {
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger cannot be null");
+        }
+        checkInService();
+        ensureLoaded();
+        if (!isSeatAvailable(seatNumber)) {
+            System.out.println("Seat " + seatNumber + " is already booked or invalid.");
+            seatNumber = seatMap.allocate(SeatPosition.ANY, false);
+            if (seatNumber < 0) {
+                addToWaitingList(passenger);
+                return -1;
+            }
+            System.out.println("Assigned best available seat " + seatNumber + " instead.");
+        } else {
+            seatMap.take(seatNumber);
+        }
+        hold(seatNumber, passenger);
+        return seatNumber;
+    }
+
+    // Books exactly the requested seat: no other seat is assigned and the
+    // passenger is not waitlisted. Used when replaying stored bookings and
+    // when promoting from the waiting list. Returns false if the seat is
+    // invalid or already booked.
+    public synchronized boolean bookExactSeat(Passenger passenger, int seatNumber) throws IllegalArgumentException {
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger cannot be null");
+        }
+        ensureLoaded();
+        if (!seatMap.isFree(seatNumber)) {
+            return false;
+        }
+        seatMap.take(seatNumber);
+        hold(seatNumber, passenger);
+        return true;
+    }
+
+    // Books the best available seat for the given preferences.
+    // Returns the seat booked, or -1 if the bus is full and the passenger was waitlisted.
+    public synchronized int bookBestAvailable(Passenger passenger, SeatPosition position, boolean fromBack) throws IllegalArgumentException {
+        int seatNumber = tryBookBestAvailable(passenger, position, fromBack);
+        if (seatNumber < 0) {
+            addToWaitingList(passenger);
+        }
+        return seatNumber;
+    }
+
+    // Same as bookBestAvailable, but a full bus returns -1 without waitlisting.
+    public synchronized int tryBookBestAvailable(Passenger passenger, SeatPosition position, boolean fromBack) throws IllegalArgumentException {
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger cannot be null");
+        }
+        checkInService();
+        ensureLoaded();
+        int seatNumber = seatMap.allocate(position, fromBack);
+        if (seatNumber < 0) {
+            return -1;
+        }
+        hold(seatNumber, passenger);
+        return seatNumber;
+    }
+
+    // Books adjacent seats for a party, in the same order as the passengers.
+    // Returns null without booking anything if there are not enough free seats.
+    public synchronized int[] bookGroup(Passenger[] party, boolean fromBack) throws IllegalArgumentException {
+        if (party == null || party.length == 0) {
+            throw new IllegalArgumentException("Party cannot be empty");
+        }
+        for (Passenger p : party) {
+            if (p == null) {
+                throw new IllegalArgumentException("Passenger cannot be null");
+            }
+        }
+        checkInService();
+        ensureLoaded();
+        int[] allocated = seatMap.allocateGroup(party.length, fromBack);
+        if (allocated == null) {
+            return null;
+        }
+        for (int i = 0; i < party.length; i++) {
+            hold(allocated[i], party[i]);
+        }
+        return allocated;
+    }
+
+    // A passenger who gets a seat no longer waits for one.
+    private void hold(int seatNumber, Passenger passenger) {
+        PassengerDirectory.register(passenger);
+        seatHolders[seatNumber] = passenger.getIndex();
+        waitingList.remove(passenger);
+    }
+
+    public synchronized boolean holdsSeat(Passenger passenger) {
+        ensureLoaded();
+        return holdsSeat(seatHolders, passenger);
+    }
+
+    private static boolean holdsSeat(int[] holders, Passenger passenger) {
+        if (passenger.getIndex() == 0) return false; // never booked anywhere
+        for (int seat = 1; seat < holders.length; seat++) {
+            if (holders[seat] == passenger.getIndex()) return true;
+        }
+        return false;
+    }
+
+    // Adds the passenger to the waiting list unless they are already on it
+    // or already hold a seat on this bus, or the bus is out of service.
+    public synchronized boolean addToWaitingList(Passenger passenger) {
+        ensureLoaded();
+        if (outOfService || waitingList.contains(passenger) || holdsSeat(passenger)) {
+            return false;
+        }
+        try {
+            waitingList.enqueue(passenger);
+            return true;
+        } catch (IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Releases every seat; returns the passengers who held them, in seat order.
+    public synchronized List<Passenger> cancelAllSeats() {
+        ensureLoaded();
+        List<Passenger> holders = new ArrayList<>();
+        for (int seat = 1; seat <= totalSeats; seat++) {
+            if (seatHolders[seat] != 0) {
+                Passenger holder = PassengerDirectory.atIndex(seatHolders[seat]);
+                if (holder != null) holders.add(holder);
+                seatHolders[seat] = 0;
+                seatMap.release(seat);
+            }
+        }
+        return holders;
+    }
+
+    // Empties the waiting list; returns the passengers in queue order.
+    public synchronized List<Passenger> clearWaitingList() {
+        ensureLoaded();
+        List<Passenger> waiting = getWaitingPassengers();
+        while (!waitingList.isEmpty()) {
+            waitingList.dequeue();
+        }
+        return waiting;
+    }
+
+    public synchronized void cancelSeat(int seatNumber, Passenger passenger) throws IllegalArgumentException {
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger cannot be null");
+        }
+        if (seatNumber < 1 || seatNumber > totalSeats) {
+            throw new IllegalArgumentException("Invalid seat number: " + seatNumber);
+        }
+        ensureLoaded();
+        if (seatHolders[seatNumber] != 0 && seatHolders[seatNumber] == passenger.getIndex()) {
+            seatHolders[seatNumber] = 0;
+            seatMap.release(seatNumber);
+        } else {
+            throw new IllegalArgumentException("Reservation not found for seat " + seatNumber);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package travelbooking;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Cancels every booking on a set of buses (breakdown or reschedule), marks
+// them out of service and moves the affected passengers to other buses on the same route, closest
+// departure first. Seat holders are placed before waitlisted passengers;
+// within each group the rebooking runs in parallel and relies on the bus
+// locks. Passengers who find no free seat join the waiting list of the
+// closest alternative. Every affected passenger is told the outcome through
+// the NotificationDispatcher, so nothing here waits on I/O.
+class BusCancellation {
+    static class Result {
+        int buses;
+        int seatsCancelled;
+        int waitingCancelled;
+        final AtomicInteger rebooked = new AtomicInteger();
+        final AtomicInteger waitlisted = new AtomicInteger();
+        final AtomicInteger unplaced = new AtomicInteger();
+        long nanos;
+        // Buses whose bookings or waiting lists changed, for the checkpointer
+        final Set<Bus> bookingsChanged = ConcurrentHashMap.newKeySet();
+        final Set<Bus> waitingListsChanged = ConcurrentHashMap.newKeySet();
+
+        void print() {
+            System.out.printf("Cancelled %d bookings and %d waiting list entries on %d buses in %.1f ms.%n",
+                    seatsCancelled, waitingCancelled, buses, nanos / 1_000_000.0);
+            System.out.println("Rebooked: " + rebooked + ", waitlisted on another bus: " + waitlisted
+                    + ", no alternative: " + unplaced + ". Notifications are being sent.");
+        }
+    }
+
+    private static class Displaced {
+        final Passenger passenger;
+        final Bus from;
+        final boolean hadSeat;
+
+        Displaced(Passenger passenger, Bus from, boolean hadSeat) {
+            this.passenger = passenger;
+            this.from = from;
+            this.hadSeat = hadSeat;
+        }
+    }
+
+    static Result cancel(Collection<Bus> cancelled, ScheduleIndex schedule, NotificationDispatcher notifications, String reason) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        Set<Bus> cancelledSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        cancelledSet.addAll(cancelled);
+        result.buses = cancelledSet.size();
+
+        List<Displaced> seated = new ArrayList<>();
+        List<Displaced> waiting = new ArrayList<>();
+        Map<Bus, List<Bus>> alternatives = new IdentityHashMap<>();
+        for (Bus bus : cancelledSet) {
+            bus.markOutOfService();
+            for (Passenger p : bus.cancelAllSeats()) {
+                seated.add(new Displaced(p, bus, true));
+            }
+            for (Passenger p : bus.clearWaitingList()) {
+                waiting.add(new Displaced(p, bus, false));
+            }
+            result.bookingsChanged.add(bus);
+            result.waitingListsChanged.add(bus);
+            alternatives.put(bus, alternativesFor(bus, schedule, cancelledSet));
+        }
+        result.seatsCancelled = seated.size();
+        result.waitingCancelled = waiting.size();
+
+        rebook(seated, alternatives, notifications, reason, result);
+        rebook(waiting, alternatives, notifications, reason, result);
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static void rebook(List<Displaced> displaced, Map<Bus, List<Bus>> alternatives,
+                               NotificationDispatcher notifications, String reason, Result result) {
+        IntStream.range(0, displaced.size()).parallel().forEach(i -> {
+            Displaced d = displaced.get(i);
+            List<Bus> options = alternatives.get(d.from);
+            String what = (d.hadSeat ? "Your booking on bus " : "Your waiting list request for bus ") + d.from.getBusNumber()
+                    + " (" + d.from.getStartingPoint() + " to " + d.from.getEndingPoint() + ", " + d.from.getStartingTime()
+                    + ") was cancelled: " + reason + ". ";
+            for (Bus option : options) {
+                if (option.getAvailableSeatCount() == 0) continue;
+                int seat = option.tryBookBestAvailable(d.passenger, SeatPosition.ANY, false);
+                if (seat > 0) {
+                    result.rebooked.incrementAndGet();
+                    result.bookingsChanged.add(option);
+                    // A seat holder is taken off the waiting list
+                    result.waitingListsChanged.add(option);
+                    notifications.notifyPassenger(d.passenger, what + "You have been moved to seat " + seat + " on bus "
+                            + option.getBusNumber() + " departing " + option.getStartingTime() + ".");
+                    return;
+                }
+            }
+            if (!options.isEmpty() && options.get(0).addToWaitingList(d.passenger)) {
+                result.waitlisted.incrementAndGet();
+                result.waitingListsChanged.add(options.get(0));
+                notifications.notifyPassenger(d.passenger, what + "No seats were free on this route; you are on the waiting list for bus "
+                        + options.get(0).getBusNumber() + " departing " + options.get(0).getStartingTime() + ".");
+                return;
+            }
+            result.unplaced.incrementAndGet();
+            notifications.notifyPassenger(d.passenger, what + "No alternative bus is available; please contact us for a refund.");
+        });
+    }
+
+    // Other buses on the same route that are still in service, closest
+    // departure time first; buses with an unknown time come last.
+    private static List<Bus> alternativesFor(Bus bus, ScheduleIndex schedule, Set<Bus> cancelled) {
+        List<Bus> options = new ArrayList<>();
+        for (Bus b : schedule.route(bus.getStartingPoint(), bus.getEndingPoint())) {
+            if (!cancelled.contains(b) && !b.isOutOfService()) options.add(b);
+        }
+        int departure = bus.getDepartureMinutes();
+        if (departure >= 0) {
+            options.sort(Comparator.comparingInt(b -> b.getDepartureMinutes() < 0 ? Integer.MAX_VALUE
+                    : Math.abs(b.getDepartureMinutes() - departure)));
+        }
+        return options;
+    }
+}
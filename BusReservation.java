@@ -2,237 +2,38 @@ package travelbooking;
 
 import java.util.*;
 import java.io.*;
-
-// Custom StaticQueue class for fixed-size queue
-class StaticQueue<T> {
-    private T[] queue;
-    private int front;
-    private int rear;
-    private int size;
-    private final int capacity;
-
-    @SuppressWarnings("unchecked")
-    public StaticQueue(int capacity) {
-        if (capacity <= 0) {
-            throw new IllegalArgumentException("Queue capacity must be positive");
-        }
-        this.capacity = capacity;
-        this.queue = (T[]) new Object[capacity];
-        this.front = 0;
-        this.rear = -1;
-        this.size = 0;
-    }
-
-    public void enqueue(T item) throws IllegalStateException {
-        if (isFull()) {
-            throw new IllegalStateException("Waiting list is full. Cannot add more passengers.");
-        }
-        rear = (rear + 1) % capacity;
-        queue[rear] = item;
-        size++;
-    }
-
-    public T dequeue() throws IllegalStateException {
-        if (isEmpty()) {
-            throw new IllegalStateException("Waiting list is empty.");
-        }
-        T item = queue[front];
-        queue[front] = null;
-        front = (front + 1) % capacity;
-        size--;
-        return item;
-    }
-
-    public boolean isEmpty() {
-        return size == 0;
-    }
-
-    public boolean isFull() {
-        return size == capacity;
-    }
-
-    public int size() {
-        return size;
-    }
-
-    public Iterator<T> iterator() {
-        return new Iterator<T>() {
-            private int current = front;
-            private int count = 0;
-
-            @Override
-            public boolean hasNext() {
-                return count < size;
-            }
-
-            @Override
-            public T next() {
-                if (!hasNext()) {
-                    throw new NoSuchElementException();
-                }
-                T item = queue[current];
-                current = (current + 1) % capacity;
-                count++;
-                return item;
-            }
-        };
-    }
-}
-
-class Passenger {
-    private String passengerId;
-    private String name;
-    private String phone;
-    private String email;
-    private String city;
-    private int age;
-
-    public Passenger(String passengerId, String name, String phone, String email, String city, int age) throws IllegalArgumentException {
-        if (passengerId == null || name == null || phone == null || email == null || city == null) {
-            throw new IllegalArgumentException("Input parameters cannot be null");
-        }
-        this.passengerId = passengerId;
-        this.name = name;
-        this.phone = phone;
-        this.email = email;
-        this.city = city;
-        this.age = age;
-    }
-
-    public String getPassengerId() { return passengerId; }
-    public String getName() { return name; }
-    public String getPhone() { return phone; }
-    public String getEmail() { return email; }
-    public String getCity() { return city; }
-    public int getAge() { return age; }
-
-    public String toString() {
-        return passengerId + ";" + name + ";" + phone + ";" + email + ";" + city + ";" + age;
-    }
-}
-
-class Booking {
-    private Passenger passenger;
-    private int seatNumber;
-
-    public Booking(Passenger passenger, int seatNumber) throws IllegalArgumentException {
-        if (passenger == null) {
-            throw new IllegalArgumentException("Passenger cannot be null");
-        }
-        if (seatNumber <= 0) {
-            throw new IllegalArgumentException("Invalid seat number");
-        }
-        this.passenger = passenger;
-        this.seatNumber = seatNumber;
-    }
-
-    public Passenger getPassenger() { return passenger; }
-    public int getSeatNumber() { return seatNumber; }
-
-    public String toString() {
-        return "Seat " + seatNumber + " booked by " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ")";
-    }
-}
-
-class Bus {
-    private String busNumber;
-    private String startingPoint;
-    private String endingPoint;
-    private String startingTime;
-    private int totalSeats;
-    private double fare;
-    private boolean[] seats;
-    private Booking[] bookedSeats;
-    private StaticQueue<Passenger> waitingList = new StaticQueue<>(100);
-
-    public Bus(String busNumber, int totalSeats, String startingPoint, String endingPoint, String startingTime, double fare) throws IllegalArgumentException {
-        if (busNumber == null || startingPoint == null || endingPoint == null || startingTime == null) {
-            throw new IllegalArgumentException("Input parameters cannot be null");
-        }
-        if (totalSeats <= 0 || fare <= 0) {
-            throw new IllegalArgumentException("Total seats and fare must be positive");
-        }
-        this.busNumber = busNumber;
-        this.totalSeats = totalSeats;
-        this.startingPoint = startingPoint;
-        this.endingPoint = endingPoint;
-        this.startingTime = startingTime;
-        this.fare = fare;
-        this.seats = new boolean[totalSeats + 1];
-        this.bookedSeats = new Booking[totalSeats + 1];
-        for (int i = 1; i <= totalSeats; i++) {
-            seats[i] = true;
-        }
-    }
-
-    public String getBusNumber() { return busNumber; }
-    public String getStartingPoint() { return startingPoint; }
-    public String getEndingPoint() { return endingPoint; }
-    public String getStartingTime() { return startingTime; }
-    public double getFare() { return fare; }
-    public int getTotalSeats() { return totalSeats; }
-    public Booking[] getBookedSeats() { return bookedSeats; }
-    public StaticQueue<Passenger> getWaitingList() { return waitingList; }
-
-    public void showBusDetails() {
-        System.out.println("Bus Number: " + busNumber + " | Route: " + startingPoint + " to " + endingPoint +
-                " | Time: " + startingTime + " | Total Seats: " + totalSeats + " | Fare: RS." + fare);
-        int available = 0;
-        int booked = 0;
-        for (int i = 1; i <= totalSeats; i++) {
-            if (seats[i]) available++;
-            if (bookedSeats[i] != null) booked++;
-        }
-        System.out.println("Seats Available: " + available + " | Booked: " + booked);
-    }
-
-    public String toFileString() {
-        return busNumber + ";" + totalSeats + ";" + startingPoint + ";" + endingPoint + ";" + startingTime + ";" + fare;
-    }
-
-    public boolean isSeatAvailable(int seatNumber) {
-        if (seatNumber < 1 || seatNumber > totalSeats) return false;
-        return seats[seatNumber];
-    }
-
-    public void bookSeat(Passenger passenger, int seatNumber) throws IllegalArgumentException {
-        if (passenger == null) {
-            throw new IllegalArgumentException("Passenger cannot be null");
-        }
-        if (isSeatAvailable(seatNumber)) {
-            seats[seatNumber] = false;
-            bookedSeats[seatNumber] = new Booking(passenger, seatNumber);
-        } else {
-            System.out.println("Seat " + seatNumber + " is already booked or invalid.");
-            try {
-                waitingList.enqueue(passenger);
-            } catch (IllegalStateException e) {
-                System.out.println("Error: " + e.getMessage());
-            }
-        }
-    }
-
-    public void cancelSeat(int seatNumber, Passenger passenger) throws IllegalArgumentException {
-        if (passenger == null) {
-            throw new IllegalArgumentException("Passenger cannot be null");
-        }
-        if (seatNumber < 1 || seatNumber > totalSeats) {
-            throw new IllegalArgumentException("Invalid seat number: " + seatNumber);
-        }
-        if (bookedSeats[seatNumber] != null && bookedSeats[seatNumber].getPassenger().getPassengerId().equalsIgnoreCase(passenger.getPassengerId())) {
-            bookedSeats[seatNumber] = null;
-            seats[seatNumber] = true;
-        } else {
-            throw new IllegalArgumentException("Reservation not found for seat " + seatNumber);
-        }
-    }
-}
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 public class BusReservation {
     private static Scanner sc = new Scanner(System.in);
-    private static LinkedList<Passenger> passengers = new LinkedList<>();
-    private static LinkedList<Bus> buses = new LinkedList<>();
+    private static ArrayList<Passenger> passengers = new ArrayList<>();
+    private static ArrayList<Bus> buses = new ArrayList<>();
+    private static HashMap<String, Integer> busIndex = new HashMap<>(); // lower-case bus number -> position in buses
     private static int passengerIdCounter = 1;
+    // Data files are written by a background checkpointer; only changed pages are re-rendered
+    private static final int PAGE_SIZE = 256;
+    private static final String BOOKINGS_FILE = "bookings.dat";
+    private static final String LEGACY_BOOKINGS_FILE = "bookings.txt";
+    private static boolean legacyBookingsLoaded = false;
+    private static Set<Integer> migratedBusPages = new TreeSet<>(); // pages of buses.txt whose times were rewritten as HH:MM
+    private static Checkpointer checkpointer = new Checkpointer();
+    // Results of completed book/cancel/waitlist requests, keyed by request ID, kept for 10 minutes
+    private static IdempotencyCache<String> completedRequests = new IdempotencyCache<>(10000, 10 * 60 * 1000L);
+    // Per passenger: burst of 5, 1 request/s. Per bus: burst of 200, 100 requests/s, at most 50 in flight.
+    private static AdmissionController admission = new AdmissionController(5, 1, 200, 100, 50);
+    private static Trie<String> cityIndex = new Trie<>();
+    private static Trie<Passenger> passengerNameIndex = new Trie<>();
+    private static Trie<Passenger> passengerPhoneIndex = new Trie<>();
+    private static ScheduleIndex schedule = new ScheduleIndex();
+    // Passenger emails and SMS are appended to notifications.log in batches
+    // of up to 500, at most 5000 per second; CancellationBenchmark uses the same settings
+    static final int NOTIFICATION_BATCH = 500;
+    static final int NOTIFICATIONS_PER_SECOND = 5000;
+    private static NotificationDispatcher notifications = new NotificationDispatcher(
+            new NotificationDispatcher.FileSink(new File("notifications.log")), NOTIFICATION_BATCH, NOTIFICATIONS_PER_SECOND);
+    // Search, booking, cancellation and waiting list requests; shared with LoadSimulator
+    private static Reservations reservations = new Reservations(schedule, cityIndex, admission, null);
 
     // Getter for passengers list to support encapsulation
     private static LinkedList<Passenger> getPassengers() {
@@ -240,6 +41,7 @@ public class BusReservation {
     }
 
     public static void main(String[] args) {
+        registerCheckpointFiles();
         try {
             loadPassengersFromFile();
             loadBusesFromFile();
@@ -251,6 +53,15 @@ public class BusReservation {
         } finally {
             System.out.println("Initial data loading completed.");
         }
+        checkpointer.markClean(); // freshly loaded data matches the files
+        if (legacyBookingsLoaded) {
+            checkpointer.markDirty("bookings", 0); // migrate bookings.txt to the compact format
+        }
+        for (int page : migratedBusPages) {
+            checkpointer.markDirty("buses", page); // store normalized departure times
+        }
+        checkpointer.start(Long.getLong("checkpoint.interval.ms", 2000L));
+        notifications.start();
 
         int choice = -1;
         do {
@@ -268,6 +79,12 @@ public class BusReservation {
                 System.out.println("10. View Available Seats");
                 System.out.println("11. View Request New Seats");
                 System.out.println("12. View Passengers (Newest to Oldest)");
+                System.out.println("13. Book Best Available Seat");
+                System.out.println("14. Search Passengers");
+                System.out.println("15. View Admission and Notification Metrics");
+                System.out.println("16. Bulk Import (CSV / JSON Lines)");
+                System.out.println("17. Bulk Export (CSV / JSON Lines)");
+                System.out.println("18. Cancel Bus (breakdown / reschedule)");
                 System.out.println("0. Exit");
                 System.out.print("Choose the option: ");
                 choice = Integer.parseInt(sc.nextLine().trim());
@@ -285,19 +102,27 @@ public class BusReservation {
                     case 10: viewAvailableSeats(); break;
                     case 11: viewRequestNewSeats(); break;
                     case 12: viewPassengersNewestToOldest(); break;
+                    case 13: bookBestAvailableSeat(); break;
+                    case 14: searchPassengers(); break;
+                    case 15: viewMetrics(); break;
+                    case 16: bulkImport(); break;
+                    case 17: bulkExport(); break;
+                    case 18: cancelBuses(); break;
                     case 0:
+                        if (!notifications.shutdown(Long.getLong("notifications.shutdown.timeout.ms", 5000L))) {
+                            System.out.println("Timed out sending notifications; " + notifications.getPending() + " were not sent.");
+                        }
                         try {
-                            savePassengersToFile();
-                            saveBusesToFile();
-                            saveBookingsToFile();
-                            saveWaitingListToFile();
+                            if (!checkpointer.shutdown(Long.getLong("checkpoint.shutdown.timeout.ms", 5000L))) {
+                                System.out.println("Error saving data: timed out waiting for the final checkpoint.");
+                            }
                         } catch (IOException e) {
                             System.out.println("Error saving data: " + e.getMessage());
                         } finally {
                             System.out.println("Data saving process completed. Exiting...");
                         }
                         break;
-                    default: System.out.println("Invalid choice. Please select a number between 0 and 12.");
+                    default: System.out.println("Invalid choice. Please select a number between 0 and 18.");
                 }
             } catch (NumberFormatException e) {
                 System.out.println("Invalid input. Please enter a valid number.");
@@ -319,91 +144,125 @@ public class BusReservation {
         return String.format("P%03d", passengerIdCounter++);
     }
 
-    private static void registerPassenger() throws IOException {
-        try {
-            System.out.print("Enter Name: ");
-            String name = sc.nextLine().trim();
-            if (name.isEmpty()) throw new IllegalArgumentException("Name cannot be empty.");
-
-            System.out.print("Phone (10 digits): ");
-            String phone = sc.nextLine().trim();
-            if (!phone.matches("\\d{10}")) throw new IllegalArgumentException("Invalid phone number. Must be 10 digits.");
-
-            System.out.print("Email: ");
-            String email = sc.nextLine().trim();
-            if (!email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) throw new IllegalArgumentException("Invalid email format.");
-
-            System.out.print("City: ");
-            String city = sc.nextLine().trim();
-            if (city.isEmpty()) throw new IllegalArgumentException("City cannot be empty.");
-
-            System.out.print("Age: ");
-            int age = Integer.parseInt(sc.nextLine().trim());
-            if (age <= 0 || age > 120) throw new IllegalArgumentException("Invalid age. Must be between 1 and 120.");
-
-            String passengerId = generatePassengerId();
-            passengers.add(new Passenger(passengerId, name, phone, email, city, age));
-            System.out.println("Passenger registered successfully with ID: " + passengerId);
-            savePassengersToFile();
-        } catch (NumberFormatException e) {
-            throw new IOException("Invalid age format. Please enter a number.", e);
-        } catch (IllegalArgumentException e) {
-            throw new IOException("Error: " + e.getMessage(), e);
-        }
+    private static void registerPassenger() {
+        System.out.print("Enter Name: ");
+        String name = sc.nextLine().trim();
+        if (rejected(Validator.checkName(name))) return;
+
+        System.out.print("Phone (10 digits): ");
+        String phone = sc.nextLine().trim();
+        if (rejected(Validator.checkPhone(phone))) return;
+
+        System.out.print("Email: ");
+        String email = sc.nextLine().trim();
+        if (rejected(Validator.checkEmail(email))) return;
+
+        System.out.print("City: ");
+        String city = sc.nextLine().trim();
+        if (rejected(Validator.checkCity(city))) return;
+
+        System.out.print("Age: ");
+        int age = Validator.parseInt(sc.nextLine().trim());
+        if (rejected(Validator.checkAge(age))) return;
+
+        String passengerId = generatePassengerId();
+        Passenger passenger = new Passenger(passengerId, name, phone, email, city, age);
+        addPassenger(passenger);
+        System.out.println("Passenger registered successfully with ID: " + passengerId);
     }
 
-    private static void registerBus() throws IOException {
-    try {
+    private static void registerBus() {
         System.out.print("Enter Bus Number: ");
         String busNumber = sc.nextLine().trim();
-        if (busNumber.isEmpty()) throw new IllegalArgumentException("Bus number cannot be empty.");
-        if (findBus(busNumber) != null) throw new IllegalArgumentException("Bus number already exists.");
+        if (rejected(Validator.checkBusNumber(busNumber))) return;
+        if (findBus(busNumber) != null) {
+            System.out.println("Error: Bus number already exists.");
+            return;
+        }
 
         System.out.print("Total Seats (1-100): ");
-        int seats = Integer.parseInt(sc.nextLine().trim());
-        if (seats <= 0 || seats > 100) throw new IllegalArgumentException("Invalid number of seats. Must be between 1 and 100.");
+        int seats = Validator.parseInt(sc.nextLine().trim());
+        if (rejected(Validator.checkSeats(seats))) return;
 
         System.out.print("Starting Point: ");
         String startingPoint = sc.nextLine().trim();
-        if (startingPoint.isEmpty()) throw new IllegalArgumentException("Starting point cannot be empty.");
+        if (rejected(Validator.checkStartingPoint(startingPoint))) return;
 
         System.out.print("Ending Point: ");
         String endingPoint = sc.nextLine().trim();
-        if (endingPoint.isEmpty()) throw new IllegalArgumentException("Ending point cannot be empty.");
-        if (endingPoint.equalsIgnoreCase(startingPoint)) throw new IllegalArgumentException("Starting and ending points cannot be the same.");
+        if (rejected(Validator.checkEndingPoint(endingPoint, startingPoint))) return;
 
         System.out.print("Starting Time (HH:MM): ");
         String startingTime = sc.nextLine().trim();
-        if (!startingTime.matches("^([01]\\d|2[0-3]):[0-5]\\d$")) throw new IllegalArgumentException("Invalid time format. Use HH:MM (24-hour).");
+        if (rejected(Validator.checkTime(startingTime))) return;
 
         System.out.print("Fare: ");
-        double fare = Double.parseDouble(sc.nextLine().trim());
-        if (fare <= 0) throw new IllegalArgumentException("Fare must be greater than 0.");
+        double fare = Validator.parseDecimal(sc.nextLine().trim());
+        if (rejected(Validator.checkFare(fare))) return;
 
-        buses.add(new Bus(busNumber, seats, startingPoint, endingPoint, startingTime, fare));
+        Bus bus = new Bus(busNumber, seats, startingPoint, endingPoint, startingTime, fare);
+        addBus(bus);
         System.out.println("Bus registered successfully.");
-        saveBusesToFile();
-    } catch (NumberFormatException e) {
-        throw new IOException("Invalid number format for seats or fare.", e);
-    } catch (IllegalArgumentException e) {
-        throw new IOException("Error: " + e.getMessage(), e);
     }
-}
+
+    // Prints the validation error, if any; true means the input was rejected.
+    private static boolean rejected(Validator.ValidationError error) {
+        if (error == null) return false;
+        System.out.println("Error: " + error.getMessage());
+        return true;
+    }
+
+    private static void indexPassenger(Passenger p) {
+        passengerNameIndex.put(p.getName(), p);
+        passengerPhoneIndex.put(p.getPhone(), p);
+        cityIndex.put(p.getCity(), Trie.normalize(p.getCity()));
+    }
+
+    private static void indexBus(Bus b) {
+        cityIndex.put(b.getStartingPoint(), Trie.normalize(b.getStartingPoint()));
+        cityIndex.put(b.getEndingPoint(), Trie.normalize(b.getEndingPoint()));
+        schedule.add(b);
+    }
 
     private static Bus findBus(String busNumber) {
         if (busNumber == null) return null;
-        for (Bus b : buses) {
-            if (b.getBusNumber().equalsIgnoreCase(busNumber)) return b;
+        Integer index = busIndex.get(busNumber.toLowerCase());
+        return index == null ? null : buses.get(index);
+    }
+
+    // The menu thread is the only writer; it locks the list while appending
+    // so the checkpointer can read pages safely.
+    private static void addPassenger(Passenger passenger) {
+        PassengerDirectory.register(passenger);
+        synchronized (passengers) {
+            passengers.add(passenger);
+        }
+        indexPassenger(passenger);
+        checkpointer.markDirty("passengers", (passengers.size() - 1) / PAGE_SIZE);
+    }
+
+    private static void addBus(Bus bus) {
+        int index;
+        synchronized (buses) {
+            buses.add(bus);
+            index = buses.size() - 1;
         }
-        return null;
+        busIndex.put(bus.getBusNumber().toLowerCase(), index);
+        indexBus(bus);
+        checkpointer.markDirty("buses", index / PAGE_SIZE);
+    }
+
+    private static void markBookingsDirty(Bus bus) {
+        checkpointer.markDirty("bookings", busIndex.get(bus.getBusNumber().toLowerCase()));
+    }
+
+    private static void markWaitingListDirty(Bus bus) {
+        checkpointer.markDirty("waitinglist", busIndex.get(bus.getBusNumber().toLowerCase()));
     }
 
     private static Passenger findPassengerById(String passengerId) {
         if (passengerId == null) return null;
-        for (Passenger p : passengers) {
-            if (p.getPassengerId().equalsIgnoreCase(passengerId)) return p;
-        }
-        return null;
+        return PassengerDirectory.get(passengerId);
     }
 
     private static void searchBus() throws IOException {
@@ -416,17 +275,120 @@ public class BusReservation {
             String endingPoint = sc.nextLine().trim();
             if (endingPoint.isEmpty()) throw new IllegalArgumentException("Ending point cannot be empty.");
 
-            boolean found = false;
-            System.out.println("\nBuses from " + startingPoint + " to " + endingPoint + ":");
-            for (Bus bus : buses) {
-                if (bus.getStartingPoint().equalsIgnoreCase(startingPoint) && 
-                    bus.getEndingPoint().equalsIgnoreCase(endingPoint)) {
-                    bus.showBusDetails();
-                    found = true;
-                }
+            System.out.print("Departing between (e.g. 06:00-10:00, blank for any time): ");
+            String window = sc.nextLine().trim();
+            int earliest = 0;
+            int latest = 24 * 60 - 1;
+            if (!window.isEmpty()) {
+                int dash = window.indexOf('-');
+                earliest = dash < 0 ? -1 : Validator.parseDepartureTime(window.substring(0, dash));
+                latest = dash < 0 ? -1 : Validator.parseDepartureTime(window.substring(dash + 1));
+                if (earliest < 0 || latest < 0) throw new IllegalArgumentException("Invalid time window. Use HH:MM-HH:MM.");
+            }
+
+            String from = reservations.resolveCity(startingPoint);
+            String to = reservations.resolveCity(endingPoint);
+            if (from != null && to != null) {
+                startingPoint = from;
+                endingPoint = to;
+            }
+
+            // In departure order; without a window, buses with an unrecognised time are listed last
+            List<Bus> matches = reservations.findBuses(startingPoint, endingPoint, window.isEmpty() ? -1 : earliest, latest);
+            String departing = window.isEmpty() ? "" : " departing " + Validator.formatTime(earliest) + "-" + Validator.formatTime(latest);
+            System.out.println("\nBuses from " + startingPoint + " to " + endingPoint + departing + ":");
+            for (Bus bus : matches) {
+                bus.showBusDetails();
+            }
+            if (matches.isEmpty()) {
+                System.out.println("No buses found for the route " + startingPoint + " to " + endingPoint + departing + ".");
+                if (from == null) System.out.println("Unknown city: " + startingPoint + ". Did you mean: " + cityIndex.fuzzyKeys(startingPoint, 3));
+                if (to == null) System.out.println("Unknown city: " + endingPoint + ". Did you mean: " + cityIndex.fuzzyKeys(endingPoint, 3));
             }
-            if (!found) {
-                System.out.println("No buses found for the route " + startingPoint + " to " + endingPoint + ".");
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Error: " + e.getMessage(), e);
+        }
+    }
+
+    private static void bulkImport() throws IOException {
+        try {
+            System.out.print("Import Passengers or Buses (P/B): ");
+            String type = sc.nextLine().trim();
+            if (!type.equalsIgnoreCase("P") && !type.equalsIgnoreCase("B")) throw new IllegalArgumentException("Invalid choice. Enter P or B.");
+            System.out.print("File path (.csv or .jsonl): ");
+            File file = new File(sc.nextLine().trim());
+            if (!file.isFile()) throw new IllegalArgumentException("File not found: " + file.getPath());
+
+            if (type.equalsIgnoreCase("P")) {
+                Set<String> phones = new HashSet<>();
+                BulkTransfer.Result result = BulkTransfer.importPassengers(file, new BulkTransfer.Committer<BulkTransfer.PassengerRow>() {
+                    public boolean add(BulkTransfer.PassengerRow row) {
+                        if (!passengerPhoneIndex.get(row.phone).isEmpty() || !phones.add(row.phone)) return false;
+                        addPassenger(new Passenger(generatePassengerId(), row.name, row.phone, row.email, row.city, row.age));
+                        return true;
+                    }
+
+                    public void persist() throws IOException {
+                        checkpointer.checkpoint();
+                    }
+                });
+                result.print("passengers");
+            } else {
+                BulkTransfer.Result result = BulkTransfer.importBuses(file, new BulkTransfer.Committer<Bus>() {
+                    public boolean add(Bus bus) {
+                        if (findBus(bus.getBusNumber()) != null) return false;
+                        addBus(bus);
+                        return true;
+                    }
+
+                    public void persist() throws IOException {
+                        checkpointer.checkpoint();
+                    }
+                });
+                result.print("buses");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Error: " + e.getMessage(), e);
+        }
+    }
+
+    private static void bulkExport() throws IOException {
+        try {
+            System.out.print("Export Passengers or Buses (P/B): ");
+            String type = sc.nextLine().trim();
+            if (!type.equalsIgnoreCase("P") && !type.equalsIgnoreCase("B")) throw new IllegalArgumentException("Invalid choice. Enter P or B.");
+            System.out.print("File path (.csv or .jsonl): ");
+            File file = new File(sc.nextLine().trim());
+
+            long start = System.nanoTime();
+            int total = type.equalsIgnoreCase("P") ? passengers.size() : buses.size();
+            int count = type.equalsIgnoreCase("P") ? BulkTransfer.exportPassengers(file, passengers)
+                    : BulkTransfer.exportBuses(file, buses);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.println("Exported " + count + " records to " + file.getAbsolutePath());
+            if (count < total) System.out.println((total - count) + " records were left out because they would not pass import validation.");
+            System.out.printf("Throughput: %.0f records/sec (%.3f s)%n", seconds > 0 ? count / seconds : 0.0, seconds);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Error: " + e.getMessage(), e);
+        }
+    }
+
+    private static void searchPassengers() throws IOException {
+        try {
+            System.out.print("Enter Name or Phone prefix: ");
+            String query = sc.nextLine().trim();
+            if (query.isEmpty()) throw new IllegalArgumentException("Search text cannot be empty.");
+
+            boolean byPhone = Character.isDigit(query.charAt(0));
+            List<Passenger> matches = byPhone ? passengerPhoneIndex.valuesWithPrefix(query, 20)
+                    : passengerNameIndex.valuesWithPrefix(query, 20);
+            if (matches.isEmpty()) {
+                System.out.println("No passengers found matching " + query + ".");
+                return;
+            }
+            for (Passenger p : matches) {
+                System.out.println("Passenger ID: " + p.getPassengerId() + ", Name: " + p.getName() +
+                        ", Phone: " + p.getPhone() + ", City: " + p.getCity());
             }
         } catch (IllegalArgumentException e) {
             throw new IOException("Error: " + e.getMessage(), e);
@@ -435,6 +397,9 @@ public class BusReservation {
 
     private static void bookSeat() throws IOException {
         try {
+            String requestId = readRequestId();
+            if (replayRequest("book", requestId)) return;
+
             System.out.print("Enter Passenger ID: ");
             String passengerId = sc.nextLine().trim();
             if (passengerId.isEmpty()) throw new IllegalArgumentException("Passenger ID cannot be empty.");
@@ -452,12 +417,10 @@ public class BusReservation {
             if (bus == null) throw new IllegalArgumentException("Bus not found.");
 
             System.out.print("Enter Seat Number (1-" + bus.getTotalSeats() + "): ");
-int seatNumber = Integer.parseInt(sc.nextLine().trim());
-if (seatNumber < 1 || seatNumber > bus.getTotalSeats()) throw new IllegalArgumentException("Invalid seat number.");
+            int seatNumber = Integer.parseInt(sc.nextLine().trim());
+            if (seatNumber < 1 || seatNumber > bus.getTotalSeats()) throw new IllegalArgumentException("Invalid seat number.");
 
-bus.bookSeat(passenger, seatNumber);
-System.out.println("Seat " + seatNumber + " booked for " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ") at RS." + bus.getFare());
-saveBookingsToFile();
+            complete("book", requestId, bus, reservations.bookSeat(passenger, bus, seatNumber));
         } catch (NumberFormatException e) {
             throw new IOException("Invalid seat number format.", e);
         } catch (IllegalArgumentException e) {
@@ -465,8 +428,95 @@ saveBookingsToFile();
         }
     }
 
+    private static void bookBestAvailableSeat() throws IOException {
+        try {
+            String requestId = readRequestId();
+            if (replayRequest("book", requestId)) return;
+
+            System.out.print("Enter Passenger ID: ");
+            String passengerId = sc.nextLine().trim();
+            if (passengerId.isEmpty()) throw new IllegalArgumentException("Passenger ID cannot be empty.");
+            Passenger passenger = findPassengerById(passengerId);
+            if (passenger == null) throw new IllegalArgumentException("Passenger not found. Please register first. Click the option 1 for register");
+
+            System.out.print("Enter Bus Number to book: ");
+            String busNumber = sc.nextLine().trim();
+            if (busNumber.isEmpty()) throw new IllegalArgumentException("Bus number cannot be empty.");
+            Bus bus = findBus(busNumber);
+            if (bus == null) throw new IllegalArgumentException("Bus not found.");
+
+            System.out.print("Companion Passenger IDs (comma separated, blank for none): ");
+            String companions = sc.nextLine().trim();
+            List<Passenger> party = new ArrayList<>();
+            party.add(passenger);
+            if (!companions.isEmpty()) {
+                for (String id : companions.split(",")) {
+                    Passenger companion = findPassengerById(id.trim());
+                    if (companion == null) throw new IllegalArgumentException("Passenger not found: " + id.trim());
+                    party.add(companion);
+                }
+            }
+
+            SeatPosition position = SeatPosition.ANY;
+            if (party.size() == 1) {
+                System.out.print("Seat preference (W = window, A = aisle, blank for any): ");
+                String pref = sc.nextLine().trim();
+                if (pref.equalsIgnoreCase("W")) position = SeatPosition.WINDOW;
+                else if (pref.equalsIgnoreCase("A")) position = SeatPosition.AISLE;
+                else if (!pref.isEmpty()) throw new IllegalArgumentException("Invalid seat preference.");
+            }
+
+            System.out.print("Front or back of the bus (F/B, blank for front): ");
+            String end = sc.nextLine().trim();
+            if (!end.isEmpty() && !end.equalsIgnoreCase("F") && !end.equalsIgnoreCase("B")) throw new IllegalArgumentException("Invalid choice. Enter F or B.");
+            boolean fromBack = end.equalsIgnoreCase("B");
+
+            Reservations.Result refused = reservations.admit(passenger, bus);
+            if (refused != null) {
+                complete("book", requestId, bus, refused);
+                return;
+            }
+            int seatNumber = 0;
+            int[] seatNumbers = null;
+            try {
+                if (party.size() == 1) seatNumber = bus.bookBestAvailable(passenger, position, fromBack);
+                else seatNumbers = bus.bookGroup(party.toArray(new Passenger[0]), fromBack);
+            } finally {
+                admission.release(bus);
+            }
+
+            StringBuilder result = new StringBuilder();
+            if (party.size() == 1) {
+                if (seatNumber < 0) {
+                    result.append("Bus is full. " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ") added to waiting list for bus " + bus.getBusNumber());
+                    System.out.println(result);
+                    rememberRequest("book", requestId, result.toString());
+                    markWaitingListDirty(bus);
+                    return;
+                }
+                result.append("Seat " + seatNumber + " booked for " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ") at RS." + bus.getFare());
+            } else {
+                if (seatNumbers == null) throw new IllegalArgumentException("Only " + bus.getAvailableSeatCount() + " seats left on bus " + bus.getBusNumber() + ".");
+                for (int i = 0; i < seatNumbers.length; i++) {
+                    Passenger p = party.get(i);
+                    if (i > 0) result.append("\n");
+                    result.append("Seat " + seatNumbers[i] + " booked for " + p.getName() + " (ID: " + p.getPassengerId() + ") at RS." + bus.getFare());
+                }
+            }
+            System.out.println(result);
+            rememberRequest("book", requestId, result.toString());
+            markBookingsDirty(bus);
+            markWaitingListDirty(bus); // booked passengers are taken off the waiting list
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Error: " + e.getMessage(), e);
+        }
+    }
+
     private static void cancelBooking() throws IOException {
         try {
+            String requestId = readRequestId();
+            if (replayRequest("cancel", requestId)) return;
+
             System.out.print("Enter Bus Number: ");
             String busNumber = sc.nextLine().trim();
             if (busNumber.isEmpty()) throw new IllegalArgumentException("Bus number cannot be empty.");
@@ -483,34 +533,19 @@ saveBookingsToFile();
             int seatNumber = Integer.parseInt(sc.nextLine().trim());
             if (seatNumber < 1 || seatNumber > bus.getTotalSeats()) throw new IllegalArgumentException("Invalid seat number.");
 
-            // Notify adjacent passengers before canceling
-            Booking[] bookedSeats = bus.getBookedSeats();
-            if (seatNumber > 1 && bookedSeats[seatNumber - 1] != null) {
-                Passenger prevPassenger = bookedSeats[seatNumber - 1].getPassenger();
-                System.out.println("Notification to " + prevPassenger.getName() + " (ID: " + prevPassenger.getPassengerId() + 
-                    ", Seat " + (seatNumber - 1) + "): Your neighbor in seat " + seatNumber + " (" + passenger.getName() + ") has canceled their booking.");
-            }
-            if (seatNumber < bus.getTotalSeats() && bookedSeats[seatNumber + 1] != null) {
-                Passenger nextPassenger = bookedSeats[seatNumber + 1].getPassenger();
-                System.out.println("Notification to " + nextPassenger.getName() + " (ID: " + nextPassenger.getPassengerId() + 
-                    ", Seat " + (seatNumber + 1) + "): Your neighbor in seat " + seatNumber + " (" + passenger.getName() + ") has canceled their booking.");
-            }
-
-            bus.cancelSeat(seatNumber, passenger);
-            System.out.println("Reservation cancelled for " + passenger.getName() + " (ID: " + passenger.getPassengerId() + ")");
-
-            saveBookingsToFile();
-            if (!bus.getWaitingList().isEmpty()) {
-                Passenger next = bus.getWaitingList().dequeue();
-                bus.bookSeat(next, seatNumber);
-                System.out.println("Seat " + seatNumber + " assigned to " + next.getName() + " (ID: " + next.getPassengerId() + ") from waiting list at RS." + bus.getFare());
-                try {
-                    saveBookingsToFile();
-                    saveWaitingListToFile();
-                } catch (IOException e) {
-                    System.out.println("Error saving booking or waiting list after cancellation: " + e.getMessage());
+            Reservations.Result result = reservations.cancelBooking(passenger, bus, seatNumber);
+            // Tell the neighbours through the dispatcher instead of making the user wait
+            for (int neighbourSeat = seatNumber - 1; neighbourSeat <= seatNumber + 1; neighbourSeat += 2) {
+                Passenger neighbour = bus.getSeatHolder(neighbourSeat);
+                if (neighbour != null) {
+                    notifications.notifyPassenger(neighbour, "Your neighbor in seat " + seatNumber + " (" + passenger.getName()
+                            + ") on bus " + bus.getBusNumber() + " has canceled their booking.");
                 }
             }
+            if (result.promoted != null) {
+                notifications.notifyPassenger(result.promoted, "Seat " + seatNumber + " on bus " + bus.getBusNumber() + " has been assigned to you from the waiting list.");
+            }
+            complete("cancel", requestId, bus, result);
         } catch (NumberFormatException e) {
             throw new IOException("Invalid seat number format.", e);
         } catch (IllegalArgumentException e) {
@@ -522,6 +557,9 @@ saveBookingsToFile();
 
     private static void requestNewSeat() throws IOException {
         try {
+            String requestId = readRequestId();
+            if (replayRequest("waitlist", requestId)) return;
+
             System.out.print("Enter Passenger ID: ");
             String passengerId = sc.nextLine().trim();
             if (passengerId.isEmpty()) throw new IllegalArgumentException("Passenger ID cannot be empty.");
@@ -534,9 +572,7 @@ saveBookingsToFile();
             Bus bus = findBus(busNumber);
             if (bus == null) throw new IllegalArgumentException("Bus not found.");
 
-            bus.getWaitingList().enqueue(passenger);
-            System.out.println(passenger.getName() + " (ID: " + passenger.getPassengerId() + ") added to waiting list for bus " + busNumber);
-            saveWaitingListToFile();
+            complete("waitlist", requestId, bus, reservations.requestNewSeat(passenger, bus));
         } catch (IllegalArgumentException e) {
             throw new IOException("Error: " + e.getMessage(), e);
         } catch (IllegalStateException e) {
@@ -544,6 +580,83 @@ saveBookingsToFile();
         }
     }
 
+    private static void viewMetrics() {
+        admission.printMetrics(buses);
+        notifications.printMetrics();
+    }
+
+    // Cancels every booking on the given buses and rebooks the passengers on
+    // the same route; see BusCancellation.
+    private static void cancelBuses() throws IOException {
+        try {
+            String requestId = readRequestId();
+            if (replayRequest("cancelbus", requestId)) return;
+
+            System.out.print("Bus numbers to cancel (comma separated): ");
+            String input = sc.nextLine().trim();
+            if (input.isEmpty()) throw new IllegalArgumentException("Bus number cannot be empty.");
+            List<Bus> cancelled = new ArrayList<>();
+            for (String busNumber : input.split(",")) {
+                if (busNumber.trim().isEmpty()) continue;
+                Bus bus = findBus(busNumber.trim());
+                if (bus == null) throw new IllegalArgumentException("Bus not found: " + busNumber.trim());
+                cancelled.add(bus);
+            }
+
+            System.out.print("Reason (e.g. breakdown, rescheduled): ");
+            String reason = sc.nextLine().trim();
+            if (reason.isEmpty()) reason = "operational reasons";
+
+            BusCancellation.Result result = BusCancellation.cancel(cancelled, schedule, notifications, reason);
+            result.print();
+            for (Bus bus : cancelled) {
+                checkpointer.markDirty("buses", busIndex.get(bus.getBusNumber().toLowerCase()) / PAGE_SIZE);
+            }
+            for (Bus bus : result.bookingsChanged) {
+                markBookingsDirty(bus);
+            }
+            for (Bus bus : result.waitingListsChanged) {
+                markWaitingListDirty(bus);
+            }
+            rememberRequest("cancelbus", requestId, "Cancelled " + result.seatsCancelled + " bookings on " + result.buses
+                    + " buses: " + result.rebooked + " rebooked, " + result.waitlisted + " waitlisted, " + result.unplaced + " without an alternative.");
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Error: " + e.getMessage(), e);
+        }
+    }
+
+    // Prints the result of a Reservations request, remembers it for replay
+    // and marks the changed pages. A request turned away by admission control
+    // is reported as an error and not remembered, so it can be retried.
+    private static void complete(String operation, String requestId, Bus bus, Reservations.Result result) {
+        if (result.rejected) throw new IllegalArgumentException(result.message);
+        System.out.println(result.message);
+        rememberRequest(operation, requestId, result.message);
+        if (result.bookingsChanged) markBookingsDirty(bus);
+        if (result.waitingListChanged) markWaitingListDirty(bus);
+    }
+
+    private static String readRequestId() {
+        System.out.print("Request ID (blank for none): ");
+        return sc.nextLine().trim();
+    }
+
+    // Prints the original result if this request ID was already processed.
+    // A replay does not touch bus state or the data files.
+    private static boolean replayRequest(String operation, String requestId) {
+        if (requestId.isEmpty()) return false;
+        String result = completedRequests.get(operation + ":" + requestId);
+        if (result == null) return false;
+        System.out.println("Request " + requestId + " already processed.");
+        System.out.println(result);
+        return true;
+    }
+
+    private static void rememberRequest(String operation, String requestId, String result) {
+        if (requestId.isEmpty()) return;
+        completedRequests.put(operation + ":" + requestId, result);
+    }
+
     private static void viewAllBookings() {
         try {
             for (Bus b : buses) {
@@ -701,29 +814,96 @@ saveBookingsToFile();
         }
     }
 
-    private static void savePassengersToFile() throws IOException {
-        File file = new File("passengers.txt");
-        PrintWriter pw = null;
-        try {
-            pw = new PrintWriter(new FileWriter(file, false));
-            for (Passenger p : passengers) {
-                pw.println(p);
+    // Registers the four data files with the checkpointer. Passengers and
+    // buses are paged PAGE_SIZE records at a time; bookings and waiting
+    // lists get one page per bus so a booking only re-renders its own bus.
+    // Bookings are stored in the compact BookingCodec format.
+    private static void registerCheckpointFiles() {
+        checkpointer.register("passengers", new File("passengers.txt"), new Checkpointer.PageSource() {
+            public int pageCount() {
+                synchronized (passengers) {
+                    return (passengers.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+                }
             }
-            System.out.println("Passengers saved to " + file.getAbsolutePath());
-        } finally {
-            if (pw != null) {
-                pw.close();
+
+            public byte[] renderPage(int page) {
+                StringBuilder sb = new StringBuilder();
+                synchronized (passengers) {
+                    int end = Math.min(passengers.size(), (page + 1) * PAGE_SIZE);
+                    for (int i = page * PAGE_SIZE; i < end; i++) {
+                        sb.append(passengers.get(i)).append(System.lineSeparator());
+                    }
+                }
+                return sb.toString().getBytes(StandardCharsets.UTF_8);
             }
-        }
+        });
+        checkpointer.register("buses", new File("buses.txt"), new Checkpointer.PageSource() {
+            public int pageCount() {
+                synchronized (buses) {
+                    return (buses.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+                }
+            }
+
+            public byte[] renderPage(int page) {
+                StringBuilder sb = new StringBuilder();
+                synchronized (buses) {
+                    int end = Math.min(buses.size(), (page + 1) * PAGE_SIZE);
+                    for (int i = page * PAGE_SIZE; i < end; i++) {
+                        sb.append(buses.get(i).toFileString()).append(System.lineSeparator());
+                    }
+                }
+                return sb.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        });
+        checkpointer.register("bookings", new File(BOOKINGS_FILE), new Checkpointer.PageSource() {
+            public int pageCount() {
+                synchronized (buses) {
+                    return buses.size();
+                }
+            }
+
+            public byte[] renderPage(int page) {
+                Bus b;
+                synchronized (buses) {
+                    b = buses.get(page);
+                }
+                byte[] record = b.encodeBookings();
+                if (page > 0) return record;
+                byte[] header = BookingCodec.header();
+                byte[] first = Arrays.copyOf(header, header.length + record.length);
+                System.arraycopy(record, 0, first, header.length, record.length);
+                return first;
+            }
+        });
+        checkpointer.register("waitinglist", new File("waitinglist.txt"), new Checkpointer.PageSource() {
+            public int pageCount() {
+                synchronized (buses) {
+                    return buses.size();
+                }
+            }
+
+            public byte[] renderPage(int page) {
+                Bus b;
+                synchronized (buses) {
+                    b = buses.get(page);
+                }
+                StringBuilder sb = new StringBuilder();
+                for (Passenger p : b.getWaitingPassengers()) {
+                    sb.append(b.getBusNumber()).append(';').append(p.getPassengerId()).append(System.lineSeparator());
+                }
+                return sb.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        });
     }
 
     private static void loadPassengersFromFile() throws IOException {
         File file = new File("passengers.txt");
-        Scanner fs = null;
+        BufferedReader fs = null;
         try {
-            fs = new Scanner(file);
-            while (fs.hasNextLine()) {
-                String line = fs.nextLine().trim();
+            fs = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = fs.readLine()) != null) {
+                line = line.trim();
                 if (line.isEmpty()) continue;
                 String[] d = line.split(";");
                 if (d.length != 6) {
@@ -732,14 +912,15 @@ saveBookingsToFile();
                 }
                 try {
                     int age = Integer.parseInt(d[5]);
-                    passengers.add(new Passenger(d[0], d[1], d[2], d[3], d[4], age));
-                    String idNum = d[0].substring(1);
-                    int id = Integer.parseInt(idNum);
-                    if (id >= passengerIdCounter) {
-                        passengerIdCounter = id + 1;
+                    Passenger passenger = new Passenger(d[0], d[1], d[2], d[3], d[4], age);
+                    addPassenger(passenger);
+                    if (passenger.getNumber() >= passengerIdCounter) {
+                        passengerIdCounter = passenger.getNumber() + 1;
                     }
                 } catch (NumberFormatException e) {
                     System.err.println("Invalid age or ID format in passenger data: " + line + " - " + e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping passenger data: " + line + " - " + e.getMessage());
                 }
             }
             System.out.println("Loaded " + passengers.size() + " passengers from " + file.getAbsolutePath());
@@ -755,45 +936,47 @@ saveBookingsToFile();
         }
     }
 
-    private static void saveBusesToFile() throws IOException {
-        File file = new File("buses.txt");
-        PrintWriter pw = null;
-        try {
-            pw = new PrintWriter(new FileWriter(file, false));
-            for (Bus b : buses) {
-                pw.println(b.toFileString());
-            }
-            System.out.println("Buses saved to " + file.getAbsolutePath());
-        } finally {
-            if (pw != null) {
-                pw.close();
-            }
-        }
-    }
-
     private static void loadBusesFromFile() throws IOException {
         File file = new File("buses.txt");
         if (!file.exists()) {
             System.out.println("No bus file found at " + file.getAbsolutePath());
             return;
         }
-        Scanner fs = null;
+        BufferedReader fs = null;
         try {
-            fs = new Scanner(file);
-            while (fs.hasNextLine()) {
-                String line = fs.nextLine().trim();
+            fs = new BufferedReader(new FileReader(file));
+            String line;
+            int migratedTimes = 0;
+            int unreadableTimes = 0;
+            while ((line = fs.readLine()) != null) {
+                line = line.trim();
                 if (line.isEmpty()) continue;
                 String[] d = line.split(";");
-                if (d.length != 6) throw new IOException("Invalid bus data format: " + line);
+                // A seventh field marks a bus cancelled with option 18
+                boolean cancelled = d.length == 7 && d[6].equals("cancelled");
+                if (d.length != 6 && !cancelled) throw new IOException("Invalid bus data format: " + line);
                 try {
                     int seats = Integer.parseInt(d[1]);
                     double fare = Double.parseDouble(d[5]);
-                    buses.add(new Bus(d[0], seats, d[2], d[3], d[4], fare));
+                    Bus bus = new Bus(d[0], seats, d[2], d[3], d[4], fare);
+                    if (cancelled) bus.markOutOfService();
+                    addBus(bus);
+                    if (bus.getDepartureMinutes() < 0) {
+                        unreadableTimes++;
+                        System.out.println("Unrecognised departure time '" + d[4] + "' for bus " + d[0]
+                                + "; kept as is and left out of time-window searches.");
+                    } else if (!d[4].equals(bus.getStartingTime())) {
+                        migratedTimes++;
+                        migratedBusPages.add((buses.size() - 1) / PAGE_SIZE);
+                    }
                 } catch (NumberFormatException e) {
                     System.out.println("Invalid seats or fare format in bus data: " + line);
                 }
             }
             System.out.println("Loaded " + buses.size() + " buses from " + file.getAbsolutePath());
+            if (migratedTimes > 0 || unreadableTimes > 0) {
+                System.out.println("Departure times: " + migratedTimes + " converted to HH:MM, " + unreadableTimes + " unrecognised.");
+            }
         } finally {
             if (fs != null) {
                 fs.close();
@@ -801,37 +984,35 @@ saveBookingsToFile();
         }
     }
 
-    private static void saveBookingsToFile() throws IOException {
-        File file = new File("bookings.txt");
-        PrintWriter pw = null;
-        try {
-            pw = new PrintWriter(new FileWriter(file, false));
-            for (Bus b : buses) {
-                for (Booking booking : b.getBookedSeats()) {
-                    if (booking != null) {
-                        pw.println(b.getBusNumber() + ";" + booking.getPassenger().getPassengerId() + ";" + booking.getSeatNumber());
-                    }
+    private static void loadBookingsFromFile() throws IOException {
+        File compact = new File(BOOKINGS_FILE);
+        if (compact.exists()) {
+            // Only record boundaries are found here; each bus decodes its own
+            // record the first time it is used.
+            byte[] data = Files.readAllBytes(compact.toPath());
+            BookingCodec.scan(data, (busNumber, count, offset, length) -> {
+                Bus bus = findBus(busNumber);
+                if (bus == null) {
+                    System.out.println("Bus not found for booking record: " + busNumber + " (bookings skipped)");
+                } else {
+                    bus.deferBookings(data, offset, length, count);
                 }
-            }
-            System.out.println("Bookings saved to " + file.getAbsolutePath());
-        } finally {
-            if (pw != null) {
-                pw.close();
-            }
+            });
+            System.out.println("Bookings indexed from " + compact.getAbsolutePath());
+            return;
         }
-    }
 
-    private static void loadBookingsFromFile() throws IOException {
-        File file = new File("bookings.txt");
+        File file = new File(LEGACY_BOOKINGS_FILE);
         if (!file.exists()) {
             System.out.println("No bookings file found at " + file.getAbsolutePath());
             return;
         }
-        Scanner fs = null;
+        BufferedReader fs = null;
         try {
-            fs = new Scanner(file);
-            while (fs.hasNextLine()) {
-                String line = fs.nextLine().trim();
+            fs = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = fs.readLine()) != null) {
+                line = line.trim();
                 if (line.isEmpty()) continue;
                 String[] d = line.split(";");
                 if (d.length != 3) throw new IOException("Invalid booking data format: " + line);
@@ -841,7 +1022,9 @@ saveBookingsToFile();
                         Passenger passenger = findPassengerById(d[1]);
                         if (passenger != null) {
                             int seatNumber = Integer.parseInt(d[2]);
-                            bus.bookSeat(passenger, seatNumber);
+                            if (!bus.bookExactSeat(passenger, seatNumber)) {
+                                System.out.println("Booking conflict skipped, seat is invalid or already booked: " + line);
+                            }
                         } else {
                             System.out.println("Passenger not found for booking: " + line);
                         }
@@ -852,6 +1035,7 @@ saveBookingsToFile();
                     System.out.println("Invalid seat number format in booking data: " + line);
                 }
             }
+            legacyBookingsLoaded = true;
             System.out.println("Bookings loaded from " + file.getAbsolutePath());
         } finally {
             if (fs != null) {
@@ -860,37 +1044,18 @@ saveBookingsToFile();
         }
     }
 
-    private static void saveWaitingListToFile() throws IOException {
-        File file = new File("waitinglist.txt");
-        PrintWriter pw = null;
-        try {
-            pw = new PrintWriter(new FileWriter(file, false));
-            for (Bus b : buses) {
-                Iterator<Passenger> iterator = b.getWaitingList().iterator();
-                while (iterator.hasNext()) {
-                    Passenger p = iterator.next();
-                    pw.println(b.getBusNumber() + ";" + p.getPassengerId());
-                }
-            }
-            System.out.println("Waiting list saved to " + file.getAbsolutePath());
-        } finally {
-            if (pw != null) {
-                pw.close();
-            }
-        }
-    }
-
     private static void loadWaitingListFromFile() throws IOException {
         File file = new File("waitinglist.txt");
         if (!file.exists()) {
             System.out.println("No waiting list file found at " + file.getAbsolutePath());
             return;
         }
-        Scanner fs = null;
+        BufferedReader fs = null;
         try {
-            fs = new Scanner(file);
-            while (fs.hasNextLine()) {
-                String line = fs.nextLine().trim();
+            fs = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = fs.readLine()) != null) {
+                line = line.trim();
                 if (line.isEmpty()) continue;
                 String[] d = line.split(";");
                 if (d.length != 2) throw new IOException("Invalid waiting list data format: " + line);
@@ -898,11 +1063,7 @@ saveBookingsToFile();
                 if (bus != null) {
                     Passenger passenger = findPassengerById(d[1]);
                     if (passenger != null) {
-                        try {
-                            bus.getWaitingList().enqueue(passenger);
-                        } catch (IllegalStateException e) {
-                            System.out.println("Waiting list full for bus " + d[0] + ", cannot add passenger: " + d[1]);
-                        }
+                        bus.deferWaiting(passenger);
                     } else {
                         System.out.println("Passenger not found for waiting list: " + line);
                     }
@@ -0,0 +1,82 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Times whole-bus cancellation: the given number of full buses is cancelled
+// at once and their passengers are rebooked onto the other buses on the
+// same routes, which start half full. Notifications go to a temporary file
+// through the dispatcher; the time until the last one is written is
+// reported separately, since cancellation does not wait for it. Each run is
+// timed twice: with the dispatcher paced as in BusReservation, and with
+// pacing effectively off to show the cost of writing the file alone.
+// Usage: CancellationBenchmark [cancelledBuses] [seatsPerBus] [busesPerRoute]
+public class CancellationBenchmark {
+    private static final String[] CITIES = { "jaffna", "colombo", "kandy", "trinco", "batticolo" };
+    private static final int RUNS = 5;
+    private static final int UNPACED = 1_000_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int cancelledCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int perRoute = args.length > 2 ? Integer.parseInt(args[2]) : 25;
+
+        Path log = Files.createTempFile("notifications", ".log");
+        int[] nextPassenger = { 1 };
+        for (int run = 1; run <= RUNS; run++) {
+            for (int rate : new int[] { BusReservation.NOTIFICATIONS_PER_SECOND, UNPACED }) {
+                ScheduleIndex schedule = new ScheduleIndex();
+                List<Bus> cancelled = buildFleet(new Random(run), schedule, cancelledCount, seats, perRoute, nextPassenger);
+
+                NotificationDispatcher notifications = new NotificationDispatcher(
+                        new NotificationDispatcher.FileSink(log.toFile()), BusReservation.NOTIFICATION_BATCH, rate);
+                notifications.start();
+                BusCancellation.Result result = BusCancellation.cancel(cancelled, schedule, notifications, "benchmark");
+                long drainStart = System.nanoTime();
+                notifications.shutdown(10 * 60_000);
+                long drain = System.nanoTime() - drainStart;
+
+                System.out.printf("Run %d, %s: %d buses x %d seats cancelled in %.1f ms (%d rebooked, %d waitlisted, "
+                                + "%d without alternative); %d of %d notifications written %.1f ms later, %d failed%n",
+                        run, rate == UNPACED ? "unpaced" : rate + " msg/s", result.buses, seats, result.nanos / 1_000_000.0,
+                        result.rebooked.get(), result.waitlisted.get(), result.unplaced.get(), notifications.getDelivered(),
+                        notifications.getQueued(), drain / 1_000_000.0, notifications.getFailed());
+            }
+        }
+        Files.delete(log);
+    }
+
+    // Adds perRoute buses on each route until cancelledCount full buses have
+    // been set aside for cancellation; returns those buses.
+    private static List<Bus> buildFleet(Random random, ScheduleIndex schedule, int cancelledCount, int seats, int perRoute,
+            int[] nextPassenger) {
+        List<Bus> cancelled = new ArrayList<>();
+        int busNumber = 0;
+        int routes = 0;
+        while (cancelled.size() < cancelledCount) {
+            String from = CITIES[routes % CITIES.length];
+            String to = CITIES[(routes / CITIES.length + routes + 1) % CITIES.length];
+            routes++;
+            if (from.equals(to)) continue;
+            for (int i = 0; i < perRoute; i++) {
+                Bus bus = new Bus(String.format("C%05d", ++busNumber), seats, from, to,
+                        Validator.formatTime(random.nextInt(24 * 60)), 500);
+                schedule.add(bus);
+                // A fifth of each route is cancelled full; the rest are half full
+                boolean cancel = i < perRoute / 5 && cancelled.size() < cancelledCount;
+                for (int seat = 1; seat <= (cancel ? seats : seats / 2); seat++) {
+                    bus.tryBookBestAvailable(newPassenger(nextPassenger[0]++), SeatPosition.ANY, false);
+                }
+                if (cancel) cancelled.add(bus);
+            }
+        }
+        return cancelled;
+    }
+
+    private static Passenger newPassenger(int n) {
+        Passenger p = new Passenger("P" + n, "passenger" + n, String.format("07%08d", n), "p" + n + "@mail.com", "jaffna", 30);
+        PassengerDirectory.register(p);
+        return p;
+    }
+}
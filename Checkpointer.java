@@ -0,0 +1,176 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Background checkpointer for the data files. Each file is split into
+// pages rendered by a PageSource; callers mark pages dirty as they change
+// and the checkpointer re-renders only those, reusing the cached text of
+// clean pages. Every file is written to a temporary file, synced and then
+// renamed over the old one, so a crash never leaves a half-written file.
+class Checkpointer {
+    interface PageSource {
+        int pageCount();
+        byte[] renderPage(int page);
+    }
+
+    private static class TrackedFile {
+        private final File file;
+        private final PageSource source;
+        private final List<byte[]> pages = new ArrayList<>();
+        private final Set<Integer> dirtyPages = new HashSet<>();
+        private boolean dirty;
+
+        TrackedFile(File file, PageSource source) {
+            this.file = file;
+            this.source = source;
+        }
+    }
+
+    private final Map<String, TrackedFile> files = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService scheduler;
+
+    public synchronized void register(String name, File file, PageSource source) {
+        files.put(name, new TrackedFile(file, source));
+    }
+
+    public synchronized void markDirty(String name, int page) {
+        TrackedFile tf = tracked(name);
+        tf.dirtyPages.add(page);
+        tf.dirty = true;
+    }
+
+    public synchronized void markClean() {
+        for (TrackedFile tf : files.values()) {
+            tf.dirtyPages.clear();
+            tf.dirty = false;
+        }
+    }
+
+    // Starts checkpointing every intervalMillis on a daemon thread.
+    public synchronized void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                System.err.println("Checkpoint failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Writes every file with dirty pages. Returns the number of pages rendered.
+    public int checkpoint() throws IOException {
+        synchronized (writeLock) {
+            int rendered = 0;
+            for (Map.Entry<String, TrackedFile> e : snapshotFiles()) {
+                TrackedFile tf = e.getValue();
+                Set<Integer> dirty;
+                synchronized (this) {
+                    if (!tf.dirty) continue;
+                    dirty = new HashSet<>(tf.dirtyPages);
+                    tf.dirtyPages.clear();
+                    tf.dirty = false;
+                }
+                try {
+                    rendered += write(tf, dirty);
+                } catch (IOException ex) {
+                    synchronized (this) {
+                        tf.dirtyPages.addAll(dirty);
+                        tf.dirty = true;
+                    }
+                    throw ex;
+                }
+            }
+            return rendered;
+        }
+    }
+
+    // Stops the background thread and flushes outstanding changes, waiting
+    // at most timeoutMillis. Returns false if the flush did not finish in time.
+    public boolean shutdown(long timeoutMillis) throws IOException {
+        ScheduledExecutorService s;
+        synchronized (this) {
+            s = scheduler;
+            scheduler = null;
+        }
+        if (s == null) {
+            checkpoint();
+            return true;
+        }
+        s.shutdown();
+        ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "checkpointer-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        Future<Integer> flush = flusher.submit(this::checkpoint);
+        flusher.shutdown();
+        try {
+            flush.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IOException("Final checkpoint failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private synchronized List<Map.Entry<String, TrackedFile>> snapshotFiles() {
+        return new ArrayList<>(files.entrySet());
+    }
+
+    private TrackedFile tracked(String name) {
+        TrackedFile tf = files.get(name);
+        if (tf == null) {
+            throw new IllegalArgumentException("Unknown checkpoint file: " + name);
+        }
+        return tf;
+    }
+
+    private int write(TrackedFile tf, Set<Integer> dirty) throws IOException {
+        int count = tf.source.pageCount();
+        int rendered = 0;
+        while (tf.pages.size() > count) {
+            tf.pages.remove(tf.pages.size() - 1);
+        }
+        for (int i = 0; i < count; i++) {
+            if (i >= tf.pages.size()) {
+                tf.pages.add(tf.source.renderPage(i));
+                rendered++;
+            } else if (dirty.contains(i)) {
+                tf.pages.set(i, tf.source.renderPage(i));
+                rendered++;
+            }
+        }
+
+        File tmp = new File(tf.file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            OutputStream w = new BufferedOutputStream(out);
+            for (byte[] page : tf.pages) {
+                w.write(page);
+            }
+            w.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), tf.file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return rendered;
+    }
+}
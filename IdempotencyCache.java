@@ -0,0 +1,65 @@
+package travelbooking;
+
+import java.util.*;
+
+// Bounded, time-expiring cache of completed request results keyed by the
+// client's idempotency key. Entries expire in insertion order, so expired
+// and overflow entries are both evicted from the head in O(1).
+class IdempotencyCache<V> {
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    public IdempotencyCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    // Returns the stored result for the key, or null if unknown or expired.
+    public synchronized V get(String key) {
+        if (key == null) return null;
+        evictExpired(System.currentTimeMillis());
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    // Records the result for the key. An existing result is kept, so a
+    // replay can never overwrite the original outcome.
+    public synchronized void put(String key, V value) {
+        if (key == null || value == null) return;
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+        if (entries.containsKey(key)) return;
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+        if (entries.size() > maxEntries) {
+            Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+            it.next();
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().expiresAt > now) break;
+            it.remove();
+        }
+    }
+}
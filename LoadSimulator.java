@@ -0,0 +1,490 @@
+package travelbooking;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Drives the booking, cancellation, waitlist and search paths in-process
+// through Reservations, the same code the menu uses, with many concurrent
+// workers and checks the seat invariants as it goes.
+// Each worker draws its operations from its own Random seeded from the run
+// seed, so a seed always produces the same operation stream; outcomes still
+// depend on thread interleaving and on the admission rate limits, which
+// run on wall-clock time.
+//
+// Route popularity is Zipfian. During an opening burst most bookings go to
+// one newly opened bus on a hot route; bookings on other buses during the
+// bursts are reported separately to show whether they are slowed down.
+//
+// Usage: LoadSimulator [key=value ...], for example
+//   LoadSimulator seed=7 workers=32 ops=500000 mix=search:70,book:20,cancel:10
+public class LoadSimulator {
+    private static final String[] CITIES = { "jaffna", "colombo", "kandy", "trinco", "batticolo", "vavuniya", "galle", "matara" };
+    private static final int MAX_REPORTED_VIOLATIONS = 10;
+
+    private enum Op { SEARCH, BOOK, CANCEL, WAITLIST }
+
+    // Latency series reported at the end; BURST_OTHER holds bookings on
+    // other buses made while an opening burst is in progress.
+    private enum Series { SEARCH, BOOK, BURST_BUS, BURST_OTHER, CANCEL, WAITLIST }
+
+    private static class Config {
+        long seed = 42;
+        int workers = 16;
+        int ops = 200000;
+        int buses = 2000;
+        int seats = 40;
+        int passengers = 20000;
+        double zipf = 1.1;
+        int[] mix = { 70, 20, 10, 0 }; // search, book, cancel, waitlist
+        int bursts = 3;
+        int burstOps = 2000; // per worker
+        int burstShare = 80; // percent of bookings sent to the opening bus
+        long sampleMillis = 100;
+
+        static Config parse(String[] args) {
+            Config c = new Config();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + arg);
+                String key = arg.substring(0, eq);
+                String value = arg.substring(eq + 1);
+                switch (key) {
+                    case "seed": c.seed = Long.parseLong(value); break;
+                    case "workers": c.workers = Integer.parseInt(value); break;
+                    case "ops": c.ops = Integer.parseInt(value); break;
+                    case "buses": c.buses = Integer.parseInt(value); break;
+                    case "seats": c.seats = Integer.parseInt(value); break;
+                    case "passengers": c.passengers = Integer.parseInt(value); break;
+                    case "zipf": c.zipf = Double.parseDouble(value); break;
+                    case "mix": c.mix = parseMix(value); break;
+                    case "bursts": c.bursts = Integer.parseInt(value); break;
+                    case "burstOps": c.burstOps = Integer.parseInt(value); break;
+                    case "burstShare": c.burstShare = Integer.parseInt(value); break;
+                    case "sampleMillis": c.sampleMillis = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + key);
+                }
+            }
+            if (c.workers <= 0 || c.ops < c.workers || c.buses <= 0 || c.passengers < c.workers) {
+                throw new IllegalArgumentException("workers, ops, buses and passengers must be positive, with at least one op and passenger per worker");
+            }
+            if (c.seats <= 0 || c.seats > 100) throw new IllegalArgumentException("seats must be between 1 and 100");
+            return c;
+        }
+
+        // "search:70,book:20,cancel:10,waitlist:0"; weights need not add up to 100
+        private static int[] parseMix(String value) {
+            int[] mix = new int[Op.values().length];
+            for (String part : value.split(",")) {
+                String[] kv = part.split(":");
+                if (kv.length != 2) throw new IllegalArgumentException("Invalid mix entry: " + part);
+                mix[Op.valueOf(kv[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(kv[1].trim());
+            }
+            if (Arrays.stream(mix).sum() <= 0) throw new IllegalArgumentException("Mix weights must not all be zero");
+            return mix;
+        }
+    }
+
+    // Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s.
+    private static class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, s);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+
+    private static class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+    }
+
+    private static class Booked {
+        final Bus bus;
+        final int seat;
+        final Passenger passenger;
+
+        Booked(Bus bus, int seat, Passenger passenger) {
+            this.bus = bus;
+            this.seat = seat;
+            this.passenger = passenger;
+        }
+    }
+
+    private final Config config;
+    private final List<Bus> buses = new ArrayList<>();
+    private final Passenger[] passengers;
+    private final String[][] routes; // by popularity rank: starting point, ending point
+    private final Bus[] openingBuses; // one per burst
+    private final ScheduleIndex schedule = new ScheduleIndex();
+    private final Trie<String> cityIndex = new Trie<>();
+    // Same limits as BusReservation
+    private final AdmissionController admission = new AdmissionController(5, 1, 200, 100, 50);
+    // Expected holder of every seat, maintained under the bus lock by the seat listener
+    private final Map<Bus, int[]> ledger = new IdentityHashMap<>();
+    private final Reservations reservations = new Reservations(schedule, cityIndex, admission,
+            (bus, seat, previous, holder, action) -> expectHolder(bus, seat, numberOf(previous), numberOf(holder), action));
+    private final Zipf routePopularity;
+
+    private final AtomicLong booked = new AtomicLong();
+    private final AtomicLong waitlisted = new AtomicLong();
+    private final AtomicLong promoted = new AtomicLong();
+    private final AtomicLong violations = new AtomicLong();
+    private final List<String> violationSamples = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> reportedWaiting = new HashSet<>(); // bus and passenger, so repeated samples count once
+    private final List<long[]> depthSamples = new ArrayList<>(); // elapsed ms, total waiting, deepest list
+
+    private LoadSimulator(Config config) {
+        this.config = config;
+        Random random = new Random(config.seed);
+        List<String[]> pairs = new ArrayList<>();
+        for (String from : CITIES) {
+            for (String to : CITIES) {
+                if (!from.equals(to)) pairs.add(new String[] { from, to });
+            }
+        }
+        Collections.shuffle(pairs, random);
+        routes = pairs.toArray(new String[0][]);
+        routePopularity = new Zipf(routes.length, config.zipf);
+
+        for (int i = 0; i < config.buses; i++) {
+            String[] route = routes[i % routes.length];
+            String time = Validator.formatTime(random.nextInt(24 * 60));
+            Bus bus = new Bus(String.format("S%06d", i + 1), config.seats, route[0], route[1], time, 300 + random.nextInt(20) * 50);
+            buses.add(bus);
+            schedule.add(bus);
+            cityIndex.put(route[0], Trie.normalize(route[0]));
+            cityIndex.put(route[1], Trie.normalize(route[1]));
+            ledger.put(bus, new int[config.seats + 1]);
+        }
+        passengers = new Passenger[config.passengers];
+        for (int i = 0; i < passengers.length; i++) {
+            passengers[i] = new Passenger("P" + (i + 1), "passenger" + (i + 1), String.format("07%08d", i + 1),
+                    "p" + (i + 1) + "@mail.com", CITIES[i % CITIES.length], 18 + i % 60);
+            PassengerDirectory.register(passengers[i]);
+        }
+        // Each burst opens a bus on one of the three most popular routes
+        openingBuses = new Bus[config.bursts];
+        for (int i = 0; i < config.bursts; i++) {
+            List<Bus> candidates = schedule.route(routes[i % Math.min(3, routes.length)][0], routes[i % Math.min(3, routes.length)][1]);
+            openingBuses[i] = candidates.isEmpty() ? buses.get(random.nextInt(buses.size())) : candidates.get(random.nextInt(candidates.size()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        LoadSimulator simulator = new LoadSimulator(config);
+        // Bus prints seat reassignment messages; keep them out of the report
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        long nanos;
+        Recorder[][] recorders;
+        try {
+            recorders = new Recorder[config.workers][];
+            long start = System.nanoTime();
+            simulator.run(recorders, start);
+            nanos = System.nanoTime() - start;
+            simulator.audit();
+        } finally {
+            System.setOut(console);
+        }
+        simulator.report(recorders, nanos);
+        if (simulator.violations.get() > 0) System.exit(1);
+    }
+
+    private void run(Recorder[][] recorders, long start) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(config.workers);
+        CountDownLatch ready = new CountDownLatch(config.workers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < config.workers; w++) {
+            int worker = w;
+            recorders[w] = new Recorder[Series.values().length];
+            for (int s = 0; s < recorders[w].length; s++) recorders[w][s] = new Recorder();
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                go.await();
+                work(worker, recorders[worker]);
+                return null;
+            }));
+        }
+        ready.await();
+        go.countDown();
+        while (!allDone(futures)) {
+            sampleWaitingLists(start);
+            Thread.sleep(config.sampleMillis);
+        }
+        sampleWaitingLists(start);
+        pool.shutdown();
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Worker failed", e.getCause());
+            }
+        }
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> f : futures) {
+            if (!f.isDone()) return false;
+        }
+        return true;
+    }
+
+    private void work(int worker, Recorder[] latency) {
+        Random random = new Random(config.seed * 31 + worker);
+        int ops = config.ops / config.workers + (worker < config.ops % config.workers ? 1 : 0);
+        // Bursts are spread evenly over the run, at the same op positions for every worker
+        int burstGap = config.bursts == 0 ? 0 : ops / (config.bursts + 1);
+        List<Booked> mine = new ArrayList<>();
+        int weightSum = Arrays.stream(config.mix).sum();
+        for (int i = 0; i < ops; i++) {
+            int burst = -1;
+            if (burstGap > 0 && i >= burstGap && (i % burstGap) < config.burstOps && i / burstGap <= config.bursts) {
+                burst = i / burstGap - 1;
+            }
+            Op op = pick(random.nextInt(weightSum));
+            long t0 = System.nanoTime();
+            Series series;
+            switch (op) {
+                case SEARCH:
+                    search(random);
+                    series = Series.SEARCH;
+                    break;
+                case BOOK: {
+                    Bus target = null;
+                    if (burst >= 0 && random.nextInt(100) < config.burstShare) target = openingBuses[burst];
+                    if (target == null) target = pickBus(random);
+                    book(passenger(worker, random), target, random, mine);
+                    series = burst < 0 ? Series.BOOK : target == openingBuses[burst] ? Series.BURST_BUS : Series.BURST_OTHER;
+                    break;
+                }
+                case CANCEL:
+                    cancel(mine, random);
+                    series = Series.CANCEL;
+                    break;
+                default:
+                    waitlist(passenger(worker, random), pickBus(random));
+                    series = Series.WAITLIST;
+            }
+            latency[series.ordinal()].add(System.nanoTime() - t0);
+        }
+    }
+
+    private Op pick(int draw) {
+        for (Op op : Op.values()) {
+            draw -= config.mix[op.ordinal()];
+            if (draw < 0) return op;
+        }
+        return Op.SEARCH;
+    }
+
+    // Workers use disjoint passengers so that each one only cancels its own bookings.
+    private Passenger passenger(int worker, Random random) {
+        int perWorker = (passengers.length - worker + config.workers - 1) / config.workers;
+        return passengers[worker + random.nextInt(perWorker) * config.workers];
+    }
+
+    private Bus pickBus(Random random) {
+        String[] route = routes[routePopularity.sample(random)];
+        List<Bus> onRoute = schedule.route(route[0], route[1]);
+        return onRoute.isEmpty() ? buses.get(random.nextInt(buses.size())) : onRoute.get(random.nextInt(onRoute.size()));
+    }
+
+    // Search Bus with a four-hour departure window, reading the free seats of each match
+    private void search(Random random) {
+        String[] route = routes[routePopularity.sample(random)];
+        String startingPoint = reservations.resolveCity(route[0]);
+        String endingPoint = reservations.resolveCity(route[1]);
+        if (startingPoint == null || endingPoint == null) return;
+        int from = random.nextInt(24) * 60;
+        for (Bus bus : reservations.findBuses(startingPoint, endingPoint, from, (from + 4 * 60) % (24 * 60))) {
+            bus.getAvailableSeatCount();
+        }
+    }
+
+    // Book Seat with a random requested seat
+    private void book(Passenger passenger, Bus bus, Random random, List<Booked> mine) {
+        Reservations.Result result = reservations.bookSeat(passenger, bus, 1 + random.nextInt(bus.getTotalSeats()));
+        if (result.waitlisted) waitlisted.incrementAndGet();
+        if (result.seat > 0) {
+            booked.incrementAndGet();
+            mine.add(new Booked(bus, result.seat, passenger));
+        }
+    }
+
+    // Cancel Booking: releases the seat and hands it to the head of the waiting list
+    private void cancel(List<Booked> mine, Random random) {
+        if (mine.isEmpty()) return;
+        int index = random.nextInt(mine.size());
+        Booked b = mine.get(index);
+        mine.set(index, mine.get(mine.size() - 1));
+        mine.remove(mine.size() - 1);
+        try {
+            if (reservations.cancelBooking(b.passenger, b.bus, b.seat).promoted != null) promoted.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+            violation("bus " + b.bus.getBusNumber() + " seat " + b.seat + ": cancel failed for holder "
+                    + b.passenger.getPassengerId() + " (" + e.getMessage() + ")");
+        }
+    }
+
+    // Request New Seat
+    private void waitlist(Passenger passenger, Bus bus) {
+        try {
+            reservations.requestNewSeat(passenger, bus);
+            waitlisted.incrementAndGet();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Already waiting or seated, or the waiting list is full
+        }
+    }
+
+    private static int numberOf(Passenger passenger) {
+        return passenger == null ? 0 : passenger.getNumber();
+    }
+
+    // Called with the bus locked.
+    private void expectHolder(Bus bus, int seat, int expected, int holder, String action) {
+        int[] holders = ledger.get(bus);
+        if (holders[seat] != expected) {
+            violation("bus " + bus.getBusNumber() + " seat " + seat + " " + action + " for P" + holder
+                    + (expected == 0 ? " while held by P" + holders[seat] : " but the ledger shows P" + holders[seat]));
+        }
+        holders[seat] = holder;
+    }
+
+    private void violation(String message) {
+        violations.incrementAndGet();
+        if (violationSamples.size() < MAX_REPORTED_VIOLATIONS) violationSamples.add(message);
+    }
+
+    // Records waiting list depth and checks that nobody waits for a bus they already have a seat on.
+    private void sampleWaitingLists(long start) {
+        long total = 0;
+        long deepest = 0;
+        for (Bus bus : buses) {
+            if (!bus.isLoaded()) continue;
+            synchronized (bus) {
+                List<Passenger> waiting = bus.getWaitingPassengers();
+                total += waiting.size();
+                deepest = Math.max(deepest, waiting.size());
+                for (Passenger p : waiting) {
+                    if (bus.holdsSeat(p) && reportedWaiting.add(bus.getBusNumber() + " " + p.getPassengerId())) {
+                        violation("bus " + bus.getBusNumber() + ": " + p.getPassengerId() + " is waitlisted while holding a seat");
+                    }
+                }
+            }
+        }
+        depthSamples.add(new long[] { (System.nanoTime() - start) / 1_000_000, total, deepest });
+    }
+
+    // Final comparison of every bus against the ledger.
+    private void audit() {
+        for (Bus bus : buses) {
+            if (!bus.isLoaded()) continue;
+            synchronized (bus) {
+                int[] holders = ledger.get(bus);
+                int held = 0;
+                for (int seat = 1; seat <= bus.getTotalSeats(); seat++) {
+                    Passenger holder = bus.getSeatHolder(seat);
+                    int actual = holder == null ? 0 : holder.getNumber();
+                    if (actual != holders[seat]) {
+                        violation("bus " + bus.getBusNumber() + " seat " + seat + " is held by P" + actual + ", expected P" + holders[seat]);
+                    }
+                    if (actual != 0) held++;
+                }
+                if (bus.getAvailableSeatCount() != bus.getTotalSeats() - held) {
+                    violation("bus " + bus.getBusNumber() + " reports " + bus.getAvailableSeatCount() + " free seats but "
+                            + (bus.getTotalSeats() - held) + " are unheld");
+                }
+            }
+        }
+    }
+
+    private void report(Recorder[][] recorders, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("Simulated %d operations with %d workers in %.3f s (%.0f ops/s), seed %d%n",
+                config.ops, config.workers, seconds, config.ops / seconds, config.seed);
+        System.out.println("Buses " + config.buses + " x " + config.seats + " seats on " + routes.length + " routes (zipf "
+                + config.zipf + "), " + config.passengers + " passengers, mix search:" + config.mix[0] + " book:" + config.mix[1]
+                + " cancel:" + config.mix[2] + " waitlist:" + config.mix[3] + ", " + config.bursts + " opening bursts");
+
+        System.out.printf("%n%-28s %9s %9s %9s %9s %9s %9s%n", "Latency (us)", "count", "p50", "p90", "p99", "p99.9", "max");
+        String[] labels = { "search", "book", "book: opening bus (burst)", "book: other buses (burst)", "cancel", "waitlist" };
+        for (Series s : Series.values()) {
+            long[] all = merge(recorders, s);
+            if (all.length == 0) continue;
+            System.out.printf("%-28s %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n", labels[s.ordinal()], all.length,
+                    percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9), all[all.length - 1] / 1000.0);
+        }
+
+        System.out.println("\nBookings: " + booked + " seats booked, " + waitlisted + " waitlisted, " + promoted + " promoted from waiting lists");
+        StringBuilder admissions = new StringBuilder("Admission:");
+        for (AdmissionController.Decision d : AdmissionController.Decision.values()) {
+            admissions.append(' ').append(d.name().toLowerCase()).append('=').append(admission.getCount(d));
+        }
+        System.out.println(admissions);
+
+        System.out.println("\nWaiting list depth over time (ms: total waiting / deepest list)");
+        int step = Math.max(1, depthSamples.size() / 20);
+        for (int i = 0; i < depthSamples.size(); i += step) {
+            long[] d = depthSamples.get(i);
+            System.out.println("  " + d[0] + ": " + d[1] + " / " + d[2]);
+        }
+        long[] last = depthSamples.get(depthSamples.size() - 1);
+        if ((depthSamples.size() - 1) % step != 0) System.out.println("  " + last[0] + ": " + last[1] + " / " + last[2]);
+
+        System.out.println("\nInvariant violations: " + violations);
+        for (String v : violationSamples) {
+            System.out.println("  " + v);
+        }
+        if (violations.get() > violationSamples.size()) {
+            System.out.println("  ... and " + (violations.get() - violationSamples.size()) + " more.");
+        }
+    }
+
+    private static long[] merge(Recorder[][] recorders, Series series) {
+        int total = 0;
+        for (Recorder[] r : recorders) total += r[series.ordinal()].size;
+        long[] all = new long[total];
+        int pos = 0;
+        for (Recorder[] r : recorders) {
+            Recorder rec = r[series.ordinal()];
+            System.arraycopy(rec.values, 0, all, pos, rec.size);
+            pos += rec.size;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    // Nearest-rank percentile in microseconds
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+}
@@ -0,0 +1,153 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sends passenger notifications off the request path. Callers only enqueue;
+// a daemon thread drains the queue in batches of up to batchSize, paced to
+// at most messagesPerSecond, and hands each batch to a Sink in one call.
+class NotificationDispatcher {
+    enum Channel { EMAIL, SMS }
+
+    static class Notification {
+        final Channel channel;
+        final String address;
+        final String passengerId;
+        final String message;
+
+        Notification(Channel channel, String address, String passengerId, String message) {
+            this.channel = channel;
+            this.address = address;
+            this.passengerId = passengerId;
+            this.message = message;
+        }
+    }
+
+    interface Sink {
+        void deliver(List<Notification> batch) throws IOException;
+    }
+
+    // Appends one line per notification to a local file: channel;address;passenger ID;message
+    static class FileSink implements Sink {
+        private final File file;
+
+        FileSink(File file) {
+            this.file = file;
+        }
+
+        public void deliver(List<Notification> batch) throws IOException {
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+                for (Notification n : batch) {
+                    out.write(n.channel + ";" + n.address + ";" + n.passengerId + ";" + n.message + System.lineSeparator());
+                }
+            }
+        }
+    }
+
+    private final Sink sink;
+    private final int batchSize;
+    private final long nanosPerMessage;
+    private final BlockingQueue<Notification> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationDispatcher(Sink sink, int batchSize, int messagesPerSecond) {
+        if (sink == null || batchSize <= 0 || messagesPerSecond <= 0) {
+            throw new IllegalArgumentException("Sink, batch size and rate must be set");
+        }
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.nanosPerMessage = 1_000_000_000L / messagesPerSecond;
+    }
+
+    // Queues an email and an SMS for the passenger.
+    public void notifyPassenger(Passenger passenger, String message) {
+        queue.add(new Notification(Channel.EMAIL, passenger.getEmail(), passenger.getPassengerId(), message));
+        queue.add(new Notification(Channel.SMS, passenger.getPhone(), passenger.getPassengerId(), message));
+        queued.addAndGet(2);
+    }
+
+    public synchronized void start() {
+        if (worker != null) return;
+        running = true;
+        worker = new Thread(this::drain, "notifications");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Stops the worker once the queue is empty, waiting at most
+    // timeoutMillis. Returns false if messages were left undelivered.
+    public boolean shutdown(long timeoutMillis) {
+        Thread t;
+        synchronized (this) {
+            t = worker;
+            worker = null;
+        }
+        if (t == null) {
+            deliverAll(false);
+            return queue.isEmpty();
+        }
+        running = false;
+        try {
+            t.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !t.isAlive() && queue.isEmpty();
+    }
+
+    public long getQueued() { return queued.get(); }
+    public long getDelivered() { return delivered.get(); }
+    public long getFailed() { return failed.get(); }
+    public int getPending() { return queue.size(); }
+
+    public void printMetrics() {
+        System.out.println("Notifications: " + queued + " queued, " + delivered + " delivered in " + batches + " batches, "
+                + failed + " failed, " + queue.size() + " pending");
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            deliverAll(true);
+            if (running && queue.isEmpty()) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliverAll(boolean paced) {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            long start = System.nanoTime();
+            try {
+                sink.deliver(batch);
+                delivered.addAndGet(batch.size());
+            } catch (IOException e) {
+                failed.addAndGet(batch.size());
+                System.err.println("Notification delivery failed: " + e.getMessage());
+            }
+            batches.incrementAndGet();
+            long wait = batch.size() * nanosPerMessage - (System.nanoTime() - start);
+            batch.clear();
+            if (paced && wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package travelbooking;
+
+class Passenger {
+    private String passengerId;
+    private int number; // numeric part of passengerId, 0 if it has none; the compact key in bookings
+    private volatile int index; // assigned by PassengerDirectory, 0 until registered
+    private String name;
+    private String phone;
+    private String email;
+    private String city;
+    private int age;
+
+    public Passenger(String passengerId, String name, String phone, String email, String city, int age) throws IllegalArgumentException {
+        if (passengerId == null || name == null || phone == null || email == null || city == null) {
+            throw new IllegalArgumentException("Input parameters cannot be null");
+        }
+        this.number = PassengerDirectory.parseNumber(passengerId);
+        this.passengerId = passengerId;
+        this.name = name;
+        this.phone = phone;
+        this.email = email;
+        this.city = city;
+        this.age = age;
+    }
+
+    public String getPassengerId() { return passengerId; }
+    public int getNumber() { return number; }
+    int getIndex() { return index; }
+    void setIndex(int index) { this.index = index; }
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+    public String getEmail() { return email; }
+    public String getCity() { return city; }
+    public int getAge() { return age; }
+
+    public String toString() {
+        return passengerId + ";" + name + ";" + phone + ";" + email + ";" + city + ";" + age;
+    }
+}
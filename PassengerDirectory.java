@@ -0,0 +1,61 @@
+package travelbooking;
+
+import java.util.*;
+
+// Interns passengers so that bookings can refer to a passenger with a
+// primitive int instead of an object reference. Each registered passenger
+// gets a dense index (1, 2, 3, ... in registration order) which is what the
+// seat arrays hold; the numeric part of the ID ("P004" -> 4) is only used
+// as a hash key, so sparse or very large IDs cost nothing extra.
+// Older data may hold IDs that are not "P<digits>" or that repeat a number
+// ("P1" after "P001"); those passengers are still registered and found by
+// ID, but the number belongs to the first passenger that had it.
+class PassengerDirectory {
+    private static final Map<Integer, Passenger> byNumber = new HashMap<>();
+    private static final Map<String, Passenger> byId = new HashMap<>(); // lower-case ID, first passenger wins
+    private static final List<Passenger> byIndex = new ArrayList<>();
+
+    // Parses the numeric part of an ID such as "P004" without allocating;
+    // 0 if the ID is not "P" followed by digits.
+    static int parseNumber(String passengerId) {
+        if (passengerId == null || passengerId.length() < 2 || Character.toUpperCase(passengerId.charAt(0)) != 'P') {
+            return 0;
+        }
+        int n = 0;
+        for (int i = 1; i < passengerId.length(); i++) {
+            char c = passengerId.charAt(i);
+            if (c < '0' || c > '9' || n > (Integer.MAX_VALUE - 9) / 10) {
+                return 0;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    static synchronized void register(Passenger passenger) {
+        if (passenger.getIndex() != 0) return;
+        byIndex.add(passenger);
+        passenger.setIndex(byIndex.size());
+        byId.putIfAbsent(passenger.getPassengerId().toLowerCase(), passenger);
+        if (passenger.getNumber() > 0) byNumber.putIfAbsent(passenger.getNumber(), passenger);
+    }
+
+    static synchronized Passenger get(int number) {
+        return byNumber.get(number);
+    }
+
+    // True if the passenger can be referred to by number, i.e. the number is
+    // valid and no earlier passenger has it.
+    static synchronized boolean ownsNumber(Passenger passenger) {
+        return passenger.getNumber() > 0 && byNumber.get(passenger.getNumber()) == passenger;
+    }
+
+    // Looks up a passenger by the dense index assigned at registration.
+    static synchronized Passenger atIndex(int index) {
+        return index > 0 && index <= byIndex.size() ? byIndex.get(index - 1) : null;
+    }
+
+    static synchronized Passenger get(String passengerId) {
+        return passengerId == null ? null : byId.get(passengerId.toLowerCase());
+    }
+}
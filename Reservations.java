@@ -0,0 +1,172 @@
+package travelbooking;
+
+import java.util.*;
+
+// Non-interactive core of Search Bus, Book Seat, Cancel Booking and Request
+// New Seat. The menu in BusReservation reads the input and then calls these
+// methods; LoadSimulator calls the same methods, so its invariant checks
+// run against the production code. Each operation returns a Result with the
+// text for the user and what changed; printing, persisting and
+// notifications stay with the caller. A SeatListener, if given, sees every
+// seat change while the bus is still locked.
+class Reservations {
+    interface SeatListener {
+        // previous or holder is null when the seat was free or is released
+        void seatChanged(Bus bus, int seat, Passenger previous, Passenger holder, String action);
+    }
+
+    static class Result {
+        String message;
+        boolean rejected; // turned away by admission control; nothing changed
+        int seat = -1; // seat booked, -1 if none
+        boolean waitlisted;
+        Passenger promoted; // Cancel Booking: given the seat from the waiting list
+        boolean bookingsChanged;
+        boolean waitingListChanged;
+    }
+
+    private final ScheduleIndex schedule;
+    private final Trie<String> cityIndex;
+    private final AdmissionController admission;
+    private final SeatListener listener;
+
+    Reservations(ScheduleIndex schedule, Trie<String> cityIndex, AdmissionController admission, SeatListener listener) {
+        this.schedule = schedule;
+        this.cityIndex = cityIndex;
+        this.admission = admission;
+        this.listener = listener;
+    }
+
+    // Maps user input onto a known city: exact match, then a unique
+    // completion of the prefix, then a known abbreviation of the input
+    // ("trinco" for "trincomalee"), then the closest spelling. Returns null
+    // if nothing is close enough.
+    String resolveCity(String input) {
+        String key = Trie.normalize(input);
+        if (cityIndex.containsKey(key)) return key;
+        List<String> completions = cityIndex.keysWithPrefix(key, 2);
+        if (completions.size() == 1) return completions.get(0);
+        String abbreviation = cityIndex.longestPrefixOf(key);
+        if (abbreviation != null && abbreviation.length() >= 4) return abbreviation;
+        List<String> close = cityIndex.fuzzyKeys(key, key.length() <= 4 ? 1 : 2);
+        return close.isEmpty() ? null : close.get(0);
+    }
+
+    // Buses in service on the route, in departure order. With earliest < 0
+    // every bus is returned and those with an unrecognised time come last;
+    // otherwise only departures from earliest to latest minutes after
+    // midnight (wrapping past midnight if earliest > latest).
+    List<Bus> findBuses(String startingPoint, String endingPoint, int earliest, int latest) {
+        List<Bus> matches = earliest < 0 ? schedule.route(startingPoint, endingPoint)
+                : schedule.departing(startingPoint, endingPoint, earliest, latest);
+        matches.removeIf(Bus::isOutOfService);
+        return matches;
+    }
+
+    // Runs a booking through admission control. Returns null if the caller
+    // may book (and must then release the bus). Otherwise returns the result
+    // to report: a sold-out bus puts the passenger on the waiting list
+    // without taking the bus lock for booking, and a rate-limited or queued
+    // out request is rejected.
+    Result admit(Passenger passenger, Bus bus) throws IllegalArgumentException {
+        if (bus.isOutOfService()) throw new IllegalArgumentException("Bus " + bus.getBusNumber() + " is out of service.");
+        Result result = new Result();
+        switch (admission.admit(passenger.getPassengerId(), bus)) {
+            case ADMITTED:
+                return null;
+            case SOLD_OUT:
+                if (bus.addToWaitingList(passenger)) {
+                    result.waitlisted = true;
+                    result.waitingListChanged = true;
+                    result.message = "Bus " + bus.getBusNumber() + " is sold out. " + describe(passenger) + " added to waiting list.";
+                } else {
+                    result.message = "Bus " + bus.getBusNumber() + " is sold out.";
+                }
+                return result;
+            case CLIENT_RATE_LIMITED:
+                result.rejected = true;
+                result.message = "Too many requests from passenger " + passenger.getPassengerId() + ". Please try again shortly.";
+                return result;
+            default:
+                result.rejected = true;
+                result.message = "Bus " + bus.getBusNumber() + " is busy. Please try again shortly.";
+                return result;
+        }
+    }
+
+    // Books the requested seat, or the best available one if it is taken;
+    // the passenger is waitlisted when the bus is full.
+    Result bookSeat(Passenger passenger, Bus bus, int seatNumber) throws IllegalArgumentException {
+        Result result = admit(passenger, bus);
+        if (result != null) return result;
+        result = new Result();
+        try {
+            synchronized (bus) {
+                result.seat = bus.bookSeat(passenger, seatNumber);
+                if (result.seat > 0) {
+                    seatChanged(bus, result.seat, null, passenger, "booked");
+                } else {
+                    result.waitlisted = bus.getWaitingList().contains(passenger);
+                }
+            }
+        } finally {
+            admission.release(bus);
+        }
+        result.bookingsChanged = result.seat > 0;
+        result.waitingListChanged = true; // a booked passenger is taken off the waiting list
+        result.message = result.seat < 0
+                ? "Bus is full. " + describe(passenger) + " added to waiting list for bus " + bus.getBusNumber()
+                : "Seat " + result.seat + " booked for " + describe(passenger) + " at RS." + bus.getFare();
+        return result;
+    }
+
+    // Releases the passenger's seat and hands it to the head of the waiting
+    // list. If that passenger cannot take the seat they go back on the list.
+    Result cancelBooking(Passenger passenger, Bus bus, int seatNumber) throws IllegalArgumentException {
+        Result result = new Result();
+        StringBuilder message = new StringBuilder("Reservation cancelled for " + describe(passenger));
+        synchronized (bus) {
+            bus.cancelSeat(seatNumber, passenger);
+            seatChanged(bus, seatNumber, passenger, null, "cancelled");
+            result.bookingsChanged = true;
+            if (!bus.getWaitingList().isEmpty()) {
+                Passenger next = bus.getWaitingList().dequeue();
+                result.waitingListChanged = true;
+                if (bus.bookExactSeat(next, seatNumber)) {
+                    seatChanged(bus, seatNumber, null, next, "promoted");
+                    result.seat = seatNumber;
+                    result.promoted = next;
+                    message.append("\nSeat " + seatNumber + " assigned to " + describe(next) + " from waiting list at RS." + bus.getFare());
+                } else {
+                    bus.addToWaitingList(next);
+                    message.append("\nSeat " + seatNumber + " could not be assigned from the waiting list; " + next.getPassengerId() + " stays on it.");
+                }
+            }
+        }
+        result.message = message.toString();
+        return result;
+    }
+
+    // Adds the passenger to the waiting list of a bus they hold no seat on.
+    Result requestNewSeat(Passenger passenger, Bus bus) throws IllegalArgumentException, IllegalStateException {
+        synchronized (bus) {
+            if (bus.isOutOfService()) throw new IllegalArgumentException("Bus " + bus.getBusNumber() + " is out of service.");
+            if (bus.getWaitingList().contains(passenger)) throw new IllegalArgumentException(describe(passenger) + " is already on the waiting list for bus " + bus.getBusNumber());
+            if (bus.holdsSeat(passenger)) throw new IllegalArgumentException(describe(passenger) + " already holds a seat on bus " + bus.getBusNumber());
+            bus.getWaitingList().enqueue(passenger);
+        }
+        Result result = new Result();
+        result.waitlisted = true;
+        result.waitingListChanged = true;
+        result.message = describe(passenger) + " added to waiting list for bus " + bus.getBusNumber();
+        return result;
+    }
+
+    private void seatChanged(Bus bus, int seat, Passenger previous, Passenger holder, String action) {
+        if (listener != null) listener.seatChanged(bus, seat, previous, holder, action);
+    }
+
+    private static String describe(Passenger passenger) {
+        return passenger.getName() + " (ID: " + passenger.getPassengerId() + ")";
+    }
+}
@@ -0,0 +1,103 @@
+package travelbooking;
+
+import java.util.*;
+
+// Buses per route ordered by departure time. Each route keeps its
+// departure minutes in a sorted int[] next to the matching buses, so a
+// time-window query is two binary searches plus the matches. Buses are
+// appended as they are added and a route is sorted again on its next
+// query, which keeps loading a large bus file linear.
+class ScheduleIndex {
+    // Sort key for buses whose departure time is not known; they come last.
+    static final int UNKNOWN_TIME = 24 * 60;
+
+    private static class Route {
+        int[] times = new int[4];
+        Bus[] buses = new Bus[4];
+        int size;
+        boolean sorted = true;
+
+        void add(Bus bus, int time) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                buses = Arrays.copyOf(buses, size * 2);
+            }
+            if (size > 0 && time < times[size - 1]) sorted = false;
+            times[size] = time;
+            buses[size] = bus;
+            size++;
+        }
+
+        void sort() {
+            if (sorted) return;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(times[a], times[b])); // stable: keeps registration order for equal times
+            int[] t = new int[times.length];
+            Bus[] b = new Bus[buses.length];
+            for (int i = 0; i < size; i++) {
+                t[i] = times[order[i]];
+                b[i] = buses[order[i]];
+            }
+            times = t;
+            buses = b;
+            sorted = true;
+        }
+
+        // First position whose time is >= key
+        int lowerBound(int key) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private final Map<String, Route> routes = new HashMap<>();
+
+    synchronized void add(Bus bus) {
+        int time = bus.getDepartureMinutes();
+        routes.computeIfAbsent(key(bus.getStartingPoint(), bus.getEndingPoint()), k -> new Route())
+                .add(bus, time < 0 ? UNKNOWN_TIME : time);
+    }
+
+    // Buses on the route departing from `from` to `to` minutes after
+    // midnight inclusive, in departure order. A window with from > to wraps
+    // past midnight (22:00-02:00).
+    synchronized List<Bus> departing(String startingPoint, String endingPoint, int from, int to) {
+        Route route = routes.get(key(startingPoint, endingPoint));
+        List<Bus> result = new ArrayList<>();
+        if (route == null) return result;
+        route.sort();
+        if (from <= to) {
+            collect(route, from, to, result);
+        } else {
+            collect(route, from, UNKNOWN_TIME - 1, result);
+            collect(route, 0, to, result);
+        }
+        return result;
+    }
+
+    // Every bus on the route in departure order, unknown times last.
+    synchronized List<Bus> route(String startingPoint, String endingPoint) {
+        Route route = routes.get(key(startingPoint, endingPoint));
+        List<Bus> result = new ArrayList<>();
+        if (route == null) return result;
+        route.sort();
+        collect(route, 0, UNKNOWN_TIME, result);
+        return result;
+    }
+
+    private static void collect(Route route, int from, int to, List<Bus> result) {
+        for (int i = route.lowerBound(from); i < route.size && route.times[i] <= to; i++) {
+            result.add(route.buses[i]);
+        }
+    }
+
+    private static String key(String startingPoint, String endingPoint) {
+        return Trie.normalize(startingPoint) + '\n' + Trie.normalize(endingPoint);
+    }
+}
@@ -0,0 +1,171 @@
+package travelbooking;
+
+import java.util.Arrays;
+
+// Bitmap seat map for a bus. Seats are laid out four to a row
+// (window, aisle | aisle, window) and paired as (1,2), (3,4), ... so that
+// companions can sit side by side. Every lookup scans at most one long per
+// 64 seats, so allocation cost stays constant for buses up to 100 seats.
+class SeatMap {
+    static final int SEATS_PER_ROW = 4;
+
+    private final int totalSeats;
+    private final long[] free;     // seat is free
+    private final long[] single;   // seat is free but its pair partner is taken (or missing)
+    private final long[] window;
+    private final long[] aisle;
+    private volatile int freeCount; // read without the Bus lock by admission control
+
+    public SeatMap(int totalSeats) {
+        if (totalSeats <= 0) {
+            throw new IllegalArgumentException("Total seats must be positive");
+        }
+        this.totalSeats = totalSeats;
+        int words = (totalSeats >> 6) + 1; // bit index == seat number, bit 0 unused
+        this.free = new long[words];
+        this.single = new long[words];
+        this.window = new long[words];
+        this.aisle = new long[words];
+        for (int seat = 1; seat <= totalSeats; seat++) {
+            set(free, seat);
+            int column = (seat - 1) % SEATS_PER_ROW;
+            if (column == 0 || column == SEATS_PER_ROW - 1) {
+                set(window, seat);
+            } else {
+                set(aisle, seat);
+            }
+            if (partner(seat) < 0) {
+                set(single, seat);
+            }
+        }
+        this.freeCount = totalSeats;
+    }
+
+    public int getTotalSeats() { return totalSeats; }
+    public int freeCount() { return freeCount; }
+
+    public boolean isFree(int seat) {
+        if (seat < 1 || seat > totalSeats) return false;
+        return get(free, seat);
+    }
+
+    public void take(int seat) {
+        if (!isFree(seat)) {
+            throw new IllegalArgumentException("Seat " + seat + " is not free");
+        }
+        clear(free, seat);
+        clear(single, seat);
+        freeCount--;
+        int p = partner(seat);
+        if (p > 0 && get(free, p)) {
+            set(single, p);
+        }
+    }
+
+    public void release(int seat) {
+        if (seat < 1 || seat > totalSeats || get(free, seat)) {
+            return;
+        }
+        set(free, seat);
+        freeCount++;
+        int p = partner(seat);
+        if (p > 0 && get(free, p)) {
+            clear(single, p);
+            clear(single, seat);
+        } else {
+            set(single, seat);
+        }
+    }
+
+    // Picks and takes the best free seat, or returns -1 if the bus is full.
+    // Seats whose partner is already taken are filled first so that whole
+    // pairs stay available for groups. The position preference is soft:
+    // if no matching seat is left, any free seat is used.
+    public int allocate(SeatPosition position, boolean fromBack) {
+        if (freeCount == 0) return -1;
+        long[] mask = position == SeatPosition.WINDOW ? window
+                : position == SeatPosition.AISLE ? aisle : null;
+        int seat = -1;
+        if (mask != null) {
+            seat = first(single, mask, fromBack);
+            if (seat < 0) seat = first(free, mask, fromBack);
+        }
+        if (seat < 0) seat = first(single, null, fromBack);
+        if (seat < 0) seat = first(free, null, fromBack);
+        take(seat);
+        return seat;
+    }
+
+    // Takes seats for a party of the given size, or returns null if fewer
+    // seats are free. A run of adjacent whole pairs is preferred; otherwise
+    // the closest free seats are used so the party is never turned away
+    // while seats remain.
+    public int[] allocateGroup(int size, boolean fromBack) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Group size must be positive");
+        }
+        if (size > freeCount) return null;
+        if (size == 1) return new int[] { allocate(SeatPosition.ANY, fromBack) };
+
+        int[] result = new int[size];
+        int pairsNeeded = (size + 1) / 2;
+        int pairs = totalSeats / 2;
+        int run = 0;
+        for (int i = 0; i < pairs; i++) {
+            int pair = fromBack ? pairs - 1 - i : i;
+            int seat = pair * 2 + 1;
+            run = get(free, seat) && get(free, seat + 1) ? run + 1 : 0;
+            if (run == pairsNeeded) {
+                int startPair = fromBack ? pair : pair - pairsNeeded + 1;
+                int start = startPair * 2 + 1;
+                for (int k = 0; k < size; k++) {
+                    result[k] = start + k;
+                    take(start + k);
+                }
+                return result;
+            }
+        }
+
+        int count = 0;
+        int seat = fromBack ? totalSeats : 1;
+        while (count < size) {
+            if (get(free, seat)) {
+                result[count++] = seat;
+                take(seat);
+            }
+            seat += fromBack ? -1 : 1;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int partner(int seat) {
+        int p = (seat & 1) == 1 ? seat + 1 : seat - 1;
+        return p <= totalSeats ? p : -1;
+    }
+
+    private int first(long[] bits, long[] mask, boolean fromBack) {
+        int words = bits.length;
+        for (int i = 0; i < words; i++) {
+            int w = fromBack ? words - 1 - i : i;
+            long v = mask == null ? bits[w] : bits[w] & mask[w];
+            if (v != 0) {
+                return fromBack ? (w << 6) + 63 - Long.numberOfLeadingZeros(v)
+                        : (w << 6) + Long.numberOfTrailingZeros(v);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean get(long[] bits, int i) {
+        return (bits[i >> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >> 6] |= 1L << i;
+    }
+
+    private static void clear(long[] bits, int i) {
+        bits[i >> 6] &= ~(1L << i);
+    }
+}
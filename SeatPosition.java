@@ -0,0 +1,6 @@
+package travelbooking;
+
+// Seat position preference used by the best-available allocator
+enum SeatPosition {
+    ANY, WINDOW, AISLE
+}
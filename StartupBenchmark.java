@@ -0,0 +1,120 @@
+package travelbooking;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Measures time-to-first-booking: a fresh JVM is started on a generated
+// dataset and timed until the first "booked for" line appears.
+// Both option 13 (best available seat) and option 4 (book seat, which first
+// lists the free seats on every bus) are timed.
+// Usage: StartupBenchmark [busCount] [extra JVM options, e.g. -XX:SharedArchiveFile=dist/BusReservation.jsa]
+// Without JVM options only the default run is measured; with them both
+// runs are measured so the difference can be compared directly.
+public class StartupBenchmark {
+    private static final int RUNS = 5;
+    private static final int PASSENGERS = 10000;
+    private static final int BOOKINGS_PER_BUS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int busCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        List<String> jvmOptions = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            jvmOptions.add(args[i]);
+        }
+
+        Path dir = Files.createTempDirectory("bus-startup");
+        long start = System.nanoTime();
+        generate(dir, busCount);
+        System.out.println("Generated " + busCount + " buses, " + PASSENGERS + " passengers, "
+                + (long) busCount * BOOKINGS_PER_BUS + " bookings in " + (System.nanoTime() - start) / 1_000_000 + " ms at " + dir);
+
+        measure(dir, busCount, "default", Collections.<String>emptyList());
+        if (!jvmOptions.isEmpty()) {
+            measure(dir, busCount, String.join(" ", jvmOptions), jvmOptions);
+        }
+    }
+
+    private static void measure(Path dir, int busCount, String label, List<String> jvmOptions) throws Exception {
+        for (int option : new int[] { 13, 4 }) {
+            long[] times = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                // Book on a different bus each run so no run reuses a checkpointed page
+                String busNumber = String.format("B%06d", (i * 7919 + option) % busCount + 1);
+                // Option 13: request ID, passenger, bus, companions, position, front/back.
+                // Option 4: request ID, passenger, bus, seat (the generator never books seat 50).
+                String input = option == 13 ? "13\n\nP001\n" + busNumber + "\n\n\n\n0\n" : "4\n\nP001\n" + busNumber + "\n50\n0\n";
+                times[i] = timeFirstBooking(dir, busNumber, input, jvmOptions);
+            }
+            Arrays.sort(times);
+            System.out.println("Time to first booking [" + label + ", option " + option + "]: min " + times[0] + " ms, median "
+                    + times[RUNS / 2] + " ms, max " + times[RUNS - 1] + " ms");
+        }
+    }
+
+    private static long timeFirstBooking(Path dir, String busNumber, String input, List<String> jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BusReservation.class.getName());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        Writer in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        in.write(input);
+        in.flush();
+
+        long elapsed = -1;
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (elapsed < 0 && line.contains("booked for")) {
+                elapsed = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+        process.waitFor();
+        if (elapsed < 0) {
+            throw new IllegalStateException("No booking was made on bus " + busNumber);
+        }
+        return elapsed;
+    }
+
+    private static void generate(Path dir, int busCount) throws IOException {
+        String[] cities = { "jaffna", "colombo", "kandy", "trinco", "batticolo", "vavuniya", "galle", "matara" };
+        Random random = new Random(42);
+
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(dir.resolve("passengers.txt")))) {
+            for (int i = 1; i <= PASSENGERS; i++) {
+                pw.println(String.format("P%03d", i) + ";passenger" + i + ";07" + String.format("%08d", i)
+                        + ";p" + i + "@mail.com;" + cities[i % cities.length] + ";" + (18 + i % 60));
+            }
+        }
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(dir.resolve("buses.txt")))) {
+            for (int i = 1; i <= busCount; i++) {
+                String from = cities[random.nextInt(cities.length)];
+                String to = cities[(Arrays.asList(cities).indexOf(from) + 1 + random.nextInt(cities.length - 1)) % cities.length];
+                pw.println(String.format("B%06d", i) + ";50;" + from + ";" + to + ";"
+                        + String.format("%02d:%02d", random.nextInt(24), random.nextInt(60)) + ";" + (300 + random.nextInt(20) * 50) + ".0");
+            }
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(dir.resolve("bookings.dat")))) {
+            out.write(BookingCodec.header());
+            for (int i = 1; i <= busCount; i++) {
+                int[] holders = new int[51];
+                for (int b = 0; b < BOOKINGS_PER_BUS; b++) {
+                    holders[1 + random.nextInt(49)] = 2 + random.nextInt(PASSENGERS - 1);
+                }
+                out.write(BookingCodec.encodeBus(String.format("B%06d", i), holders, null));
+            }
+        }
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(dir.resolve("waitinglist.txt")))) {
+            for (int i = 1; i <= busCount; i += 100) {
+                pw.println(String.format("B%06d", i) + ";P" + String.format("%03d", 2 + random.nextInt(PASSENGERS - 1)));
+            }
+        }
+    }
+}
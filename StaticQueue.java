@@ -0,0 +1,103 @@
+package travelbooking;
+
+import java.util.*;
+
+// Custom StaticQueue class for fixed-size queue
+class StaticQueue<T> {
+    private T[] queue;
+    private int front;
+    private int rear;
+    private int size;
+    private final int capacity;
+
+    @SuppressWarnings("unchecked")
+    public StaticQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.queue = (T[]) new Object[capacity];
+        this.front = 0;
+        this.rear = -1;
+        this.size = 0;
+    }
+
+    public void enqueue(T item) throws IllegalStateException {
+        if (isFull()) {
+            throw new IllegalStateException("Waiting list is full. Cannot add more passengers.");
+        }
+        rear = (rear + 1) % capacity;
+        queue[rear] = item;
+        size++;
+    }
+
+    public T dequeue() throws IllegalStateException {
+        if (isEmpty()) {
+            throw new IllegalStateException("Waiting list is empty.");
+        }
+        T item = queue[front];
+        queue[front] = null;
+        front = (front + 1) % capacity;
+        size--;
+        return item;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(T item) {
+        for (int i = 0, index = front; i < size; i++, index = (index + 1) % capacity) {
+            if (queue[index] == item || (queue[index] != null && queue[index].equals(item))) return true;
+        }
+        return false;
+    }
+
+    // Removes the first occurrence of the item, keeping the order of the rest.
+    public boolean remove(T item) {
+        for (int i = 0, index = front; i < size; i++, index = (index + 1) % capacity) {
+            if (queue[index] == item || (queue[index] != null && queue[index].equals(item))) {
+                for (int j = i + 1, from = (index + 1) % capacity; j < size; j++, from = (from + 1) % capacity) {
+                    queue[index] = queue[from];
+                    index = from;
+                }
+                queue[rear] = null;
+                rear = (rear - 1 + capacity) % capacity;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int current = front;
+            private int count = 0;
+
+            @Override
+            public boolean hasNext() {
+                return count < size;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T item = queue[current];
+                current = (current + 1) % capacity;
+                count++;
+                return item;
+            }
+        };
+    }
+}
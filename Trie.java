@@ -0,0 +1,192 @@
+package travelbooking;
+
+import java.util.*;
+
+// Case-insensitive prefix tree used for autocomplete and fuzzy lookups.
+// Children are kept in sorted char arrays so results come out in
+// alphabetical order and a lookup costs O(key length), independent of the
+// number of entries.
+class Trie<T> {
+    private static class Node<T> {
+        private char[] labels = new char[0];
+        private Node<T>[] next = newArray(0);
+        private String key;
+        private List<T> values;
+
+        Node<T> child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? next[i] : null;
+        }
+
+        Node<T> addChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) return next[i];
+            i = -(i + 1);
+            char[] newLabels = new char[labels.length + 1];
+            Node<T>[] newNext = newArray(next.length + 1);
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(next, 0, newNext, 0, i);
+            System.arraycopy(labels, i, newLabels, i + 1, labels.length - i);
+            System.arraycopy(next, i, newNext, i + 1, next.length - i);
+            Node<T> node = new Node<>();
+            newLabels[i] = c;
+            newNext[i] = node;
+            labels = newLabels;
+            next = newNext;
+            return node;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <T> Node<T>[] newArray(int size) {
+            return (Node<T>[]) new Node[size];
+        }
+    }
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    static String normalize(String key) {
+        return key == null ? "" : key.trim().toLowerCase();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void put(String key, T value) {
+        String k = normalize(key);
+        if (k.isEmpty() || value == null) return;
+        Node<T> node = root;
+        for (int i = 0; i < k.length(); i++) {
+            node = node.addChild(k.charAt(i));
+        }
+        if (node.values == null) {
+            node.key = k;
+            node.values = new ArrayList<>(1);
+        }
+        for (T v : node.values) {
+            if (v == value || v.equals(value)) return;
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    public void remove(String key, T value) {
+        Node<T> node = find(normalize(key));
+        if (node != null && node.values != null && node.values.remove(value)) {
+            size--;
+        }
+    }
+
+    public List<T> get(String key) {
+        Node<T> node = find(normalize(key));
+        if (node == null || node.values == null) return Collections.emptyList();
+        return Collections.unmodifiableList(node.values);
+    }
+
+    public boolean containsKey(String key) {
+        return !get(key).isEmpty();
+    }
+
+    // Longest key that is a prefix of text, or null.
+    public String longestPrefixOf(String text) {
+        String t = normalize(text);
+        String longest = null;
+        Node<T> node = root;
+        for (int i = 0; i < t.length(); i++) {
+            node = node.child(t.charAt(i));
+            if (node == null) break;
+            if (node.values != null && !node.values.isEmpty()) longest = node.key;
+        }
+        return longest;
+    }
+
+    // Keys starting with the prefix, in alphabetical order, up to limit.
+    public List<String> keysWithPrefix(String prefix, int limit) {
+        List<String> keys = new ArrayList<>();
+        Node<T> node = find(normalize(prefix));
+        if (node != null) collectKeys(node, keys, limit);
+        return keys;
+    }
+
+    // Values whose key starts with the prefix, up to limit.
+    public List<T> valuesWithPrefix(String prefix, int limit) {
+        List<T> values = new ArrayList<>();
+        Node<T> node = find(normalize(prefix));
+        if (node != null) collectValues(node, values, limit);
+        return values;
+    }
+
+    // Keys within maxEdits Levenshtein distance of word, closest first.
+    // Walks the trie with one DP row per node and prunes any branch whose
+    // row minimum already exceeds maxEdits, which is the same work a
+    // bounded Levenshtein automaton does.
+    public List<String> fuzzyKeys(String word, int maxEdits) {
+        String w = normalize(word);
+        List<String> keys = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+        int[] row = new int[w.length() + 1];
+        for (int i = 0; i <= w.length(); i++) row[i] = i;
+        for (int i = 0; i < root.labels.length; i++) {
+            fuzzy(root.next[i], root.labels[i], w, row, maxEdits, keys, distances);
+        }
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> distances.get(i)).thenComparing(keys::get));
+        List<String> sorted = new ArrayList<>(order.length);
+        for (Integer i : order) sorted.add(keys.get(i));
+        return sorted;
+    }
+
+    private void fuzzy(Node<T> node, char c, String word, int[] prev, int maxEdits,
+                       List<String> keys, List<Integer> distances) {
+        int n = word.length();
+        int[] row = new int[n + 1];
+        row[0] = prev[0] + 1;
+        int min = row[0];
+        for (int i = 1; i <= n; i++) {
+            int insert = row[i - 1] + 1;
+            int delete = prev[i] + 1;
+            int replace = prev[i - 1] + (word.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(insert, Math.min(delete, replace));
+            if (row[i] < min) min = row[i];
+        }
+        if (row[n] <= maxEdits && node.values != null && !node.values.isEmpty()) {
+            keys.add(node.key);
+            distances.add(row[n]);
+        }
+        if (min <= maxEdits) {
+            for (int i = 0; i < node.labels.length; i++) {
+                fuzzy(node.next[i], node.labels[i], word, row, maxEdits, keys, distances);
+            }
+        }
+    }
+
+    private Node<T> find(String key) {
+        Node<T> node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    private void collectKeys(Node<T> node, List<String> keys, int limit) {
+        if (keys.size() >= limit) return;
+        if (node.values != null && !node.values.isEmpty()) keys.add(node.key);
+        for (int i = 0; i < node.next.length && keys.size() < limit; i++) {
+            collectKeys(node.next[i], keys, limit);
+        }
+    }
+
+    private void collectValues(Node<T> node, List<T> values, int limit) {
+        if (node.values != null) {
+            for (T v : node.values) {
+                if (values.size() >= limit) return;
+                values.add(v);
+            }
+        }
+        for (int i = 0; i < node.next.length && values.size() < limit; i++) {
+            collectValues(node.next[i], values, limit);
+        }
+    }
+}
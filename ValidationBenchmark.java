@@ -0,0 +1,138 @@
+package travelbooking;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import travelbooking.Validator.ValidationError;
+
+// Compares the registration field checks as they used to be written
+// (String.matches, Integer.parseInt/Double.parseDouble and exceptions for
+// rejected input) with Validator. Each round validates the same generated
+// rows, 20% of them invalid; the first rounds are warm-up.
+// Usage: ValidationBenchmark [rows] [rounds]
+public class ValidationBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String[][] passengers = new String[rows][];
+        String[][] buses = new String[rows][];
+        generate(passengers, buses);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRegex(passengers, buses);
+            runValidator(passengers, buses);
+        }
+        measure("regex + exceptions", rows, rounds, () -> runRegex(passengers, buses));
+        measure("Validator", rows, rounds, () -> runValidator(passengers, buses));
+    }
+
+    private interface Round {
+        int run();
+    }
+
+    private static void measure(String label, int rows, int rounds, Round round) {
+        long[] times = new long[rounds];
+        long allocated = 0;
+        int valid = 0;
+        for (int i = 0; i < rounds; i++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            valid = round.run();
+            times[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes;
+        }
+        Arrays.sort(times);
+        double perRow = 2.0 * rows; // a passenger row and a bus row
+        System.out.printf("%-20s median %7.1f ns/row, min %7.1f ns/row, %7.1f bytes/row allocated, %d valid%n",
+                label, times[rounds / 2] / perRow, times[0] / perRow, allocated / (perRow * rounds), valid);
+    }
+
+    // Bytes allocated by this thread so far, or 0 where the JVM does not report it.
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static int runValidator(String[][] passengers, String[][] buses) {
+        int valid = 0;
+        for (String[] f : passengers) {
+            ValidationError error = Validator.checkName(f[0]);
+            if (error == null) error = Validator.checkPhone(f[1]);
+            if (error == null) error = Validator.checkEmail(f[2]);
+            if (error == null) error = Validator.checkCity(f[3]);
+            if (error == null) error = Validator.checkAge(Validator.parseInt(f[4]));
+            if (error == null) valid++;
+        }
+        for (String[] f : buses) {
+            ValidationError error = Validator.checkBusNumber(f[0]);
+            if (error == null) error = Validator.checkSeats(Validator.parseInt(f[1]));
+            if (error == null) error = Validator.checkStartingPoint(f[2]);
+            if (error == null) error = Validator.checkEndingPoint(f[3], f[2]);
+            if (error == null) error = Validator.checkTime(f[4]);
+            if (error == null) error = Validator.checkFare(Validator.parseDecimal(f[5]));
+            if (error == null) valid++;
+        }
+        return valid;
+    }
+
+    private static int runRegex(String[][] passengers, String[][] buses) {
+        int valid = 0;
+        for (String[] f : passengers) {
+            try {
+                if (f[0].isEmpty()) throw new IllegalArgumentException("Name cannot be empty.");
+                if (!f[1].matches("\\d{10}")) throw new IllegalArgumentException("Invalid phone number. Must be 10 digits.");
+                if (!f[2].matches("^[A-Za-z0-9+_.-]+@(.+)$")) throw new IllegalArgumentException("Invalid email format.");
+                if (f[3].isEmpty()) throw new IllegalArgumentException("City cannot be empty.");
+                int age = Integer.parseInt(f[4]);
+                if (age <= 0 || age > 120) throw new IllegalArgumentException("Invalid age. Must be between 1 and 120.");
+                valid++;
+            } catch (IllegalArgumentException e) {
+                // rejected
+            }
+        }
+        for (String[] f : buses) {
+            try {
+                if (f[0].isEmpty()) throw new IllegalArgumentException("Bus number cannot be empty.");
+                int seats = Integer.parseInt(f[1]);
+                if (seats <= 0 || seats > 100) throw new IllegalArgumentException("Invalid number of seats. Must be between 1 and 100.");
+                if (f[2].isEmpty()) throw new IllegalArgumentException("Starting point cannot be empty.");
+                if (f[3].isEmpty()) throw new IllegalArgumentException("Ending point cannot be empty.");
+                if (f[3].equalsIgnoreCase(f[2])) throw new IllegalArgumentException("Starting and ending points cannot be the same.");
+                if (!f[4].matches("^([01]\\d|2[0-3]):[0-5]\\d$")) throw new IllegalArgumentException("Invalid time format. Use HH:MM (24-hour).");
+                double fare = Double.parseDouble(f[5]);
+                if (fare <= 0) throw new IllegalArgumentException("Fare must be greater than 0.");
+                valid++;
+            } catch (IllegalArgumentException e) {
+                // rejected
+            }
+        }
+        return valid;
+    }
+
+    private static void generate(String[][] passengers, String[][] buses) {
+        String[] cities = { "jaffna", "colombo", "kandy", "trinco", "batticolo", "vavuniya", "galle", "matara" };
+        Random random = new Random(42);
+        for (int i = 0; i < passengers.length; i++) {
+            String[] p = { "passenger" + i, "07" + String.format("%08d", i % 100000000), "p" + i + "@mail.com",
+                    cities[i % cities.length], String.valueOf(18 + i % 60) };
+            String[] b = { String.format("B%06d", i), String.valueOf(20 + i % 40), cities[i % cities.length],
+                    cities[(i + 1) % cities.length], String.format("%02d:%02d", random.nextInt(24), random.nextInt(60)),
+                    (300 + random.nextInt(20) * 50) + ".0" };
+            // One row in five breaks a single field, spread over the checks that can fail
+            if (i % 5 == 4) {
+                switch (random.nextInt(4)) {
+                    case 0: p[1] = "07123"; b[4] = "25:00"; break;
+                    case 1: p[2] = "p" + i + ".mail.com"; b[5] = "free"; break;
+                    case 2: p[4] = "abc"; b[1] = "x20"; break;
+                    default: p[4] = "150"; b[1] = "0"; break;
+                }
+            }
+            passengers[i] = p;
+            buses[i] = b;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package travelbooking;
+
+// Field validation for registration and bulk import. The scanners are
+// hand-written equivalents of the old regular expressions and parse calls:
+// they never allocate and report problems as a ValidationError (null when
+// the field is valid) instead of throwing.
+class Validator {
+    enum ValidationError {
+        NAME_EMPTY("Name cannot be empty."),
+        PHONE("Invalid phone number. Must be 10 digits."),
+        EMAIL("Invalid email format."),
+        CITY_EMPTY("City cannot be empty."),
+        AGE_FORMAT("Invalid age format. Please enter a number."),
+        AGE_RANGE("Invalid age. Must be between 1 and 120."),
+        BUS_NUMBER_EMPTY("Bus number cannot be empty."),
+        SEATS_FORMAT("Invalid number format for seats."),
+        SEATS_RANGE("Invalid number of seats. Must be between 1 and 100."),
+        STARTING_POINT_EMPTY("Starting point cannot be empty."),
+        ENDING_POINT_EMPTY("Ending point cannot be empty."),
+        SAME_POINTS("Starting and ending points cannot be the same."),
+        TIME("Invalid time format. Use HH:MM (24-hour)."),
+        FARE_FORMAT("Invalid number format for fare."),
+        FARE_RANGE("Fare must be greater than 0."),
+        SEPARATOR("Text cannot contain ';' or line breaks.");
+
+        private final String message;
+
+        ValidationError(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() { return message; }
+    }
+
+    // Returned by parseInt when the text is not a plain decimal integer.
+    static final int INVALID_INT = Integer.MIN_VALUE;
+
+    private Validator() {
+    }
+
+    static ValidationError checkName(CharSequence name) {
+        if (name.length() == 0) return ValidationError.NAME_EMPTY;
+        return isStorable(name) ? null : ValidationError.SEPARATOR;
+    }
+
+    // Same as matching \d{10}
+    static ValidationError checkPhone(CharSequence phone) {
+        if (phone.length() != 10) return ValidationError.PHONE;
+        for (int i = 0; i < 10; i++) {
+            if (!isDigit(phone.charAt(i))) return ValidationError.PHONE;
+        }
+        return null;
+    }
+
+    // Same as matching ^[A-Za-z0-9+_.-]+@(.+)$, except that the domain may
+    // not contain ';' since the data files are ';'-separated.
+    static ValidationError checkEmail(CharSequence email) {
+        int n = email.length();
+        int i = 0;
+        while (i < n && isLocalPartChar(email.charAt(i))) i++;
+        if (i == 0 || i >= n - 1 || email.charAt(i) != '@') return ValidationError.EMAIL;
+        for (int j = i + 1; j < n; j++) {
+            if (isLineTerminator(email.charAt(j)) || email.charAt(j) == ';') return ValidationError.EMAIL;
+        }
+        return null;
+    }
+
+    static ValidationError checkCity(CharSequence city) {
+        if (city.length() == 0) return ValidationError.CITY_EMPTY;
+        return isStorable(city) ? null : ValidationError.SEPARATOR;
+    }
+
+    // Takes the result of parseInt, so INVALID_INT reports a format error.
+    static ValidationError checkAge(int age) {
+        if (age == INVALID_INT) return ValidationError.AGE_FORMAT;
+        return age <= 0 || age > 120 ? ValidationError.AGE_RANGE : null;
+    }
+
+    static ValidationError checkBusNumber(CharSequence busNumber) {
+        if (busNumber.length() == 0) return ValidationError.BUS_NUMBER_EMPTY;
+        return isStorable(busNumber) ? null : ValidationError.SEPARATOR;
+    }
+
+    static ValidationError checkSeats(int seats) {
+        if (seats == INVALID_INT) return ValidationError.SEATS_FORMAT;
+        return seats <= 0 || seats > 100 ? ValidationError.SEATS_RANGE : null;
+    }
+
+    static ValidationError checkStartingPoint(CharSequence startingPoint) {
+        if (startingPoint.length() == 0) return ValidationError.STARTING_POINT_EMPTY;
+        return isStorable(startingPoint) ? null : ValidationError.SEPARATOR;
+    }
+
+    static ValidationError checkEndingPoint(String endingPoint, String startingPoint) {
+        if (endingPoint.isEmpty()) return ValidationError.ENDING_POINT_EMPTY;
+        if (!isStorable(endingPoint)) return ValidationError.SEPARATOR;
+        return endingPoint.equalsIgnoreCase(startingPoint) ? ValidationError.SAME_POINTS : null;
+    }
+
+    static ValidationError checkTime(CharSequence time) {
+        return parseTime(time) < 0 ? ValidationError.TIME : null;
+    }
+
+    // Takes the result of parseDecimal, so NaN reports a format error.
+    static ValidationError checkFare(double fare) {
+        if (Double.isNaN(fare)) return ValidationError.FARE_FORMAT;
+        return fare <= 0 ? ValidationError.FARE_RANGE : null;
+    }
+
+    // Minutes after midnight for a strict 24-hour HH:MM value, or -1.
+    static int parseTime(CharSequence time) {
+        if (time.length() != 5 || time.charAt(2) != ':') return -1;
+        char h1 = time.charAt(0), h2 = time.charAt(1), m1 = time.charAt(3), m2 = time.charAt(4);
+        if (!isDigit(h1) || !isDigit(h2) || !isDigit(m1) || !isDigit(m2)) return -1;
+        int hours = (h1 - '0') * 10 + (h2 - '0');
+        int minutes = (m1 - '0') * 10 + (m2 - '0');
+        if (hours > 23 || minutes > 59) return -1;
+        return hours * 60 + minutes;
+    }
+
+    // Minutes after midnight for the departure times found in older data as
+    // well as HH:MM: "07.00 AM", "05 PM", "7:30pm", "20:20". Hours are 1-12
+    // with AM/PM and 0-23 without, where minutes are then required. -1 if
+    // the value cannot be read unambiguously.
+    static int parseDepartureTime(CharSequence time) {
+        int n = time.length();
+        int i = 0;
+        while (i < n && time.charAt(i) == ' ') i++;
+        int hours = 0;
+        int hourDigits = 0;
+        while (i < n && isDigit(time.charAt(i)) && hourDigits < 2) {
+            hours = hours * 10 + (time.charAt(i++) - '0');
+            hourDigits++;
+        }
+        if (hourDigits == 0) return -1;
+        int minutes = -1;
+        if (i < n && (time.charAt(i) == ':' || time.charAt(i) == '.')) {
+            if (i + 2 >= n) return -1;
+            char m1 = time.charAt(i + 1), m2 = time.charAt(i + 2);
+            if (!isDigit(m1) || !isDigit(m2)) return -1;
+            minutes = (m1 - '0') * 10 + (m2 - '0');
+            if (minutes > 59) return -1;
+            i += 3;
+        }
+        while (i < n && time.charAt(i) == ' ') i++;
+        int meridiem = 0; // 1 for AM, 2 for PM
+        if (i + 1 < n && (time.charAt(i + 1) == 'M' || time.charAt(i + 1) == 'm')) {
+            char c = time.charAt(i);
+            if (c == 'A' || c == 'a') meridiem = 1;
+            else if (c == 'P' || c == 'p') meridiem = 2;
+            if (meridiem != 0) i += 2;
+        }
+        while (i < n && time.charAt(i) == ' ') i++;
+        if (i != n) return -1;
+        if (meridiem == 0) {
+            if (minutes < 0 || hours > 23) return -1;
+            return hours * 60 + minutes;
+        }
+        if (hours < 1 || hours > 12) return -1;
+        return (hours % 12 + (meridiem == 2 ? 12 : 0)) * 60 + Math.max(minutes, 0);
+    }
+
+    // HH:MM for minutes after midnight.
+    static String formatTime(int minutes) {
+        int h = minutes / 60, m = minutes % 60;
+        return new String(new char[] { (char) ('0' + h / 10), (char) ('0' + h % 10), ':', (char) ('0' + m / 10), (char) ('0' + m % 10) });
+    }
+
+    // Optional sign followed by ASCII digits; INVALID_INT on anything else or overflow.
+    static int parseInt(CharSequence s) {
+        int n = s.length();
+        if (n == 0) return INVALID_INT;
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == n) return INVALID_INT;
+        }
+        long value = 0;
+        for (; i < n; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) return INVALID_INT;
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) return INVALID_INT;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    // Optional sign, digits and an optional fraction ("450", "450.5", ".5");
+    // NaN on anything else. Up to 15 significant digits are converted with a
+    // single correctly rounded division; longer values fall back to
+    // Double.parseDouble.
+    static double parseDecimal(CharSequence s) {
+        int n = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (n > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            negative = s.charAt(0) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean digits = false;
+        for (; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (isDigit(c)) {
+                digits = true;
+                if (significant > 0 || c != '0') significant++;
+                if (point) scale++;
+                if (significant > 15 || scale >= POWERS_OF_TEN.length) return parseLongDecimal(s, i + 1, point);
+                mantissa = mantissa * 10 + (c - '0');
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!digits) return Double.NaN;
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    // Checks the rest of a value too long for the fast path, from index i,
+    // so that Double.parseDouble only sees plain digits and one point.
+    private static double parseLongDecimal(CharSequence s, int i, boolean point) {
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (!isDigit(c)) {
+                return Double.NaN;
+            }
+        }
+        return Double.parseDouble(s.toString());
+    }
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c)
+                || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    // Characters that '.' does not match in a java.util.regex pattern
+    // False if the text contains the data files' field separator ';' or a
+    // line terminator, either of which would split the stored record.
+    static boolean isStorable(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ';' || isLineTerminator(c)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -1,13 +0,0 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
- */
-package travelbooking;
-
-/**
- *
- * @author kalai
- */
-class passenger {
-    
-}